@@ -0,0 +1,12 @@
+-- 小说表冗余首章ID，避免查询小说信息时再去分片的章节表查询首章
+alter table book_info
+    add column first_chapter_id bigint(20) unsigned DEFAULT NULL COMMENT '首章节ID' after comment_count;
+
+-- 回填历史数据（也可以等待应用中的 BookFirstChapterTask 定时回填）
+update book_info b
+set b.first_chapter_id = (select c.id
+                          from book_chapter c
+                          where c.book_id = b.id
+                          order by c.chapter_num
+                          limit 1)
+where b.first_chapter_id is null;
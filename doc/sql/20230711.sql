@@ -0,0 +1,3 @@
+-- 小说 ES 增量同步按更新时间水位查询
+alter table book_info
+    add index idx_updateTime (update_time, id);
@@ -0,0 +1,9 @@
+-- 小说信息改变消息发件箱，与业务数据在同一事务中写入，事务提交后批量发送到 MQ 并删除
+create table book_change_outbox
+(
+    id          bigint(20) unsigned NOT NULL AUTO_INCREMENT,
+    book_id     bigint(20) unsigned NOT NULL COMMENT '小说ID',
+    chapter_id  bigint(20) unsigned DEFAULT NULL COMMENT '章节ID',
+    create_time datetime            DEFAULT NULL COMMENT '创建时间',
+    PRIMARY KEY (id) USING BTREE
+) ENGINE = InnoDB COMMENT ='小说信息改变消息发件箱';
@@ -10,6 +10,7 @@ import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
@@ -18,7 +19,8 @@ import java.util.Map;
 
 @SpringBootApplication
 @MapperScan("io.github.xxyopen.novel.dao.mapper")
-@EnableCaching
+// 缓存切面的优先级高于 @SingleFlight 切面，缓存命中时不需要合并调用
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @EnableScheduling
 @Slf4j
 public class NovelApplication {
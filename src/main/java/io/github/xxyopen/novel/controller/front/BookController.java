@@ -1,5 +1,7 @@
 package io.github.xxyopen.novel.controller.front;
 
+import io.github.xxyopen.novel.core.common.req.PageReqDto;
+import io.github.xxyopen.novel.core.common.resp.PageRespDto;
 import io.github.xxyopen.novel.core.common.resp.RestResp;
 import io.github.xxyopen.novel.core.constant.ApiRouterConsts;
 import io.github.xxyopen.novel.dto.resp.BookCategoryRespDto;
@@ -12,10 +14,19 @@ import io.github.xxyopen.novel.dto.resp.BookRankRespDto;
 import io.github.xxyopen.novel.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -87,13 +98,27 @@ public class BookController {
     }
 
     /**
-     * 小说章节列表查询接口
+     * 小说章节列表查询接口，响应体直接流式写出，不在内存中组装章节列表
      */
-    @Operation(summary = "小说章节列表查询接口")
+    @Operation(summary = "小说章节列表查询接口", responses = @ApiResponse(responseCode = "200",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = ChapterListResp.class))))
     @GetMapping("chapter/list")
-    public RestResp<List<BookChapterRespDto>> listChapters(
-        @Parameter(description = "小说ID") Long bookId) {
-        return bookService.listChapters(bookId);
+    public void listChapters(@Parameter(description = "小说ID") Long bookId,
+        HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        bookService.writeChapters(bookId, response.getOutputStream());
+    }
+
+    /**
+     * 小说章节列表分页查询接口
+     */
+    @Operation(summary = "小说章节列表分页查询接口")
+    @GetMapping("chapter/page")
+    public RestResp<PageRespDto<BookChapterRespDto>> listChapterPage(
+        @Parameter(description = "小说ID") Long bookId, @ParameterObject PageReqDto dto) {
+        return bookService.listChapters(bookId, dto);
     }
 
     /**
@@ -135,6 +160,33 @@ public class BookController {
         return bookService.listVisitRankBooks();
     }
 
+    /**
+     * 小说日点击榜查询接口
+     */
+    @Operation(summary = "小说日点击榜查询接口")
+    @GetMapping("day_visit_rank")
+    public RestResp<List<BookRankRespDto>> listDayVisitRankBooks() {
+        return bookService.listDayVisitRankBooks();
+    }
+
+    /**
+     * 小说周点击榜查询接口
+     */
+    @Operation(summary = "小说周点击榜查询接口")
+    @GetMapping("week_visit_rank")
+    public RestResp<List<BookRankRespDto>> listWeekVisitRankBooks() {
+        return bookService.listWeekVisitRankBooks();
+    }
+
+    /**
+     * 小说月点击榜查询接口
+     */
+    @Operation(summary = "小说月点击榜查询接口")
+    @GetMapping("month_visit_rank")
+    public RestResp<List<BookRankRespDto>> listMonthVisitRankBooks() {
+        return bookService.listMonthVisitRankBooks();
+    }
+
     /**
      * 小说新书榜查询接口
      */
@@ -163,4 +215,24 @@ public class BookController {
         return bookService.listNewestComments(bookId);
     }
 
+    /**
+     * 小说章节列表查询接口的响应格式，和 RestResp 序列化后的属性一致，仅用于生成接口文档
+     */
+    @Getter
+    @Schema(name = "RestRespListBookChapterRespDto")
+    static class ChapterListResp {
+
+        @Schema(description = "错误码，00000-没有错误")
+        private String code;
+
+        @Schema(description = "响应消息")
+        private String message;
+
+        @Schema(description = "响应数据，章节只包含章节ID、章节名和是否收费")
+        private List<BookChapterRespDto> data;
+
+        private boolean ok;
+
+    }
+
 }
@@ -6,8 +6,11 @@ import io.github.xxyopen.novel.core.constant.ApiRouterConsts;
 import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
 import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
 import io.github.xxyopen.novel.service.SearchService;
+import io.github.xxyopen.novel.service.SuggestService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -28,6 +31,8 @@ public class SearchController {
 
     private final SearchService searchService;
 
+    private final SuggestService suggestService;
+
     /**
      * 小说搜索接口
      */
@@ -38,4 +43,14 @@ public class SearchController {
         return searchService.searchBooks(condition);
     }
 
+    /**
+     * 搜索联想接口
+     */
+    @Operation(summary = "搜索联想接口")
+    @GetMapping("suggest")
+    public RestResp<List<String>> suggest(
+        @Parameter(description = "关键词前缀，支持小说名、作者名和拼音首字母") String keyword) {
+        return suggestService.suggest(keyword);
+    }
+
 }
@@ -0,0 +1,47 @@
+package io.github.xxyopen.novel.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * 单飞（合并并发的相同调用） 注解
+ * <p>
+ * 同一节点上 key 相同的并发调用只有一个真正执行，其余调用等待并共享它的结果，key 的构建方式和 @Lock 相同。
+ * 用于只读的加载方法，和 @Cacheable 一起使用时只在缓存未命中时生效
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/9
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface SingleFlight {
+
+    String prefix();
+
+    /**
+     * 是否同时使用分布式锁合并其他节点的调用，获取锁超时后不再等待，直接执行
+     */
+    boolean distributed() default false;
+
+    /**
+     * 获取分布式锁的最长等待时间（秒）
+     */
+    long waitTime() default 3L;
+
+    /**
+     * 分布式模式下获取锁后重新查询的缓存所在的缓存管理器，为空时不查询
+     */
+    String cacheManager() default "";
+
+    /**
+     * 分布式模式下获取锁后重新查询的缓存，其他节点已加载并放入缓存时直接返回缓存的值；
+     * 缓存 key 按默认的 SimpleKeyGenerator 由方法参数生成，需与 @Cacheable 一致；两级缓存只查询远程缓存
+     */
+    String cacheName() default "";
+
+}
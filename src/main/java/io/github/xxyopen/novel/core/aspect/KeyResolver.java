@@ -0,0 +1,96 @@
+package io.github.xxyopen.novel.core.aspect;
+
+import io.github.xxyopen.novel.core.annotation.Key;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 根据方法参数上的 @Key 注解构建 key，供 @Lock 和 @SingleFlight 切面使用
+ * <p>
+ * 每个方法第一次调用时解析出带 @Key 的参数位置和 SpEL 表达式并缓存，表达式使用混合编译模式，多次执行后编译为字节码
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/9
+ */
+@Component
+public class KeyResolver {
+
+    private static final String KEY_SEPARATOR = "::";
+
+    private final ExpressionParser parser = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.MIXED, KeyResolver.class.getClassLoader()));
+
+    private final TemplateParserContext parserContext = new TemplateParserContext();
+
+    /**
+     * 方法 -> 该方法的 key 构建器
+     */
+    private final Map<Method, MethodKeyBuilder> keyBuilders = new ConcurrentHashMap<>();
+
+    public String resolve(String prefix, Method method, Object[] args) {
+        return keyBuilders.computeIfAbsent(method, this::createKeyBuilder).build(prefix, args);
+    }
+
+    private MethodKeyBuilder createKeyBuilder(Method method) {
+        Parameter[] parameters = method.getParameters();
+        int keyCount = 0;
+        for (Parameter parameter : parameters) {
+            if (parameter.isAnnotationPresent(Key.class)) {
+                keyCount++;
+            }
+        }
+        int[] keyIndexes = new int[keyCount];
+        Expression[] expressions = new Expression[keyCount];
+        for (int i = 0, k = 0; i < parameters.length; i++) {
+            Key key = parameters[i].getAnnotation(Key.class);
+            if (key != null) {
+                keyIndexes[k] = i;
+                // 没有表达式时直接使用参数的 toString
+                expressions[k] = StringUtils.hasText(key.expr())
+                    ? parser.parseExpression(key.expr(), parserContext) : null;
+                k++;
+            }
+        }
+        return new MethodKeyBuilder(parameters.length, keyIndexes, expressions);
+    }
+
+    /**
+     * 单个方法的 key 构建器
+     *
+     * @param parameterCount 参数个数，每个参数对应 key 中的一段，没有 @Key 的参数为空
+     * @param keyIndexes     带 @Key 的参数下标
+     * @param expressions    与 keyIndexes 对应的已解析表达式
+     */
+    private record MethodKeyBuilder(int parameterCount, int[] keyIndexes,
+                                    Expression[] expressions) {
+
+        String build(String prefix, Object[] args) {
+            StringBuilder builder = new StringBuilder(64);
+            if (StringUtils.hasText(prefix)) {
+                builder.append(KEY_SEPARATOR).append(prefix);
+            }
+            for (int i = 0, k = 0; i < parameterCount; i++) {
+                builder.append(KEY_SEPARATOR);
+                if (k < keyIndexes.length && keyIndexes[k] == i) {
+                    Object arg = args[i];
+                    builder.append(expressions[k] == null ? arg.toString()
+                        : expressions[k].getValue(arg, String.class));
+                    k++;
+                }
+            }
+            return builder.toString();
+        }
+
+    }
+
+}
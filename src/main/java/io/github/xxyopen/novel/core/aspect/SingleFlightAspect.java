@@ -0,0 +1,135 @@
+package io.github.xxyopen.novel.core.aspect;
+
+import io.github.xxyopen.novel.core.annotation.SingleFlight;
+import io.github.xxyopen.novel.core.cache.TwoLevelCache;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 单飞切面类，对带有 @SingleFlight 注解的方法进行拦截，合并同一节点上 key 相同的并发调用
+ * <p>
+ * 优先级低于缓存切面（见 NovelApplication 中 @EnableCaching 的 order），所以缓存命中时不会进入该切面
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/9
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class SingleFlightAspect {
+
+    private static final String KEY_PREFIX = "SingleFlight";
+
+    private final RedissonClient redissonClient;
+
+    private final KeyResolver keyResolver;
+
+    private final BeanFactory beanFactory;
+
+    /**
+     * 正在执行的调用，key -> 执行结果
+     */
+    private final Map<String, CompletableFuture<Object>> inFlightCalls = new ConcurrentHashMap<>();
+
+    @Around(value = "@annotation(io.github.xxyopen.novel.core.annotation.SingleFlight)")
+    public Object doAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method targetMethod = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        SingleFlight singleFlight = targetMethod.getAnnotation(SingleFlight.class);
+        String key = KEY_PREFIX + keyResolver.resolve(singleFlight.prefix(), targetMethod,
+            joinPoint.getArgs());
+
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> inFlightCall = inFlightCalls.putIfAbsent(key, call);
+        if (inFlightCall != null) {
+            // 已有相同的调用正在执行，等待并共享它的结果
+            try {
+                return inFlightCall.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            Object result = singleFlight.distributed()
+                ? proceedWithDistributedLock(joinPoint, key, singleFlight)
+                : joinPoint.proceed();
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightCalls.remove(key, call);
+        }
+    }
+
+    /**
+     * 使用分布式锁合并其他节点的调用，获取锁失败时直接执行，不影响请求
+     * <p>
+     * 等待锁期间持有锁的节点可能已经加载完成并放入缓存，获取锁后先重新查询缓存。
+     * 该切面运行在 @Cacheable(sync = true) 的本地原子加载中，两级缓存只查询远程，本地缓存正在加载同一个 key
+     */
+    private Object proceedWithDistributedLock(ProceedingJoinPoint joinPoint, String key,
+        SingleFlight singleFlight) throws Throwable {
+        RLock rLock = redissonClient.getLock(key);
+        boolean locked = false;
+        try {
+            locked = rLock.tryLock(singleFlight.waitTime(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (Exception e) {
+            log.warn("获取单飞分布式锁失败，key:{}", key, e);
+        }
+        try {
+            if (locked) {
+                Object cached = getCachedValue(singleFlight, joinPoint.getArgs());
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            return joinPoint.proceed();
+        } finally {
+            if (locked) {
+                rLock.unlock();
+            }
+        }
+    }
+
+    private Object getCachedValue(SingleFlight singleFlight, Object[] args) {
+        if (!StringUtils.hasText(singleFlight.cacheName())) {
+            return null;
+        }
+        Cache cache = beanFactory.getBean(singleFlight.cacheManager(), CacheManager.class)
+            .getCache(singleFlight.cacheName());
+        if (cache == null) {
+            return null;
+        }
+        Object key = SimpleKeyGenerator.generateKey(args);
+        Cache.ValueWrapper valueWrapper = cache instanceof TwoLevelCache twoLevelCache
+            ? twoLevelCache.getRemote(key) : cache.get(key);
+        return valueWrapper == null ? null : valueWrapper.get();
+    }
+
+}
@@ -0,0 +1,21 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 两级缓存本地副本失效消息
+ *
+ * @param nodeId    发送消息的节点标识，节点收到自己发出的消息时忽略
+ * @param cacheName 缓存名
+ * @param key       缓存 key，为 null 时表示清空整个本地缓存
+ * @author xiongxiaoyang
+ * @date 2023/7/3
+ */
+public record CacheInvalidateMessage(String nodeId, String cacheName, Object key) implements
+    Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+}
@@ -0,0 +1,33 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 缓存重新加载函数注册表
+ * <p>
+ * 开启了 refreshAfterWrite 的本地缓存在刷新时，通过缓存名找到对应的加载函数，在后台重新加载数据
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/5
+ */
+public class CacheReloadRegistry {
+
+    private final Map<String, Function<Object, Object>> reloaders = new ConcurrentHashMap<>();
+
+    /**
+     * 注册缓存的重新加载函数
+     *
+     * @param cacheName 缓存名
+     * @param reloader  根据缓存 key 查询最新数据的函数
+     */
+    public void register(String cacheName, Function<Object, Object> reloader) {
+        reloaders.put(cacheName, reloader);
+    }
+
+    public Function<Object, Object> getReloader(String cacheName) {
+        return reloaders.get(cacheName);
+    }
+
+}
@@ -0,0 +1,151 @@
+package io.github.xxyopen.novel.core.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 压缩字符串 Redis 序列化器，用于小说内容这类大文本缓存
+ * <p>
+ * 存储格式：魔数(1字节) + 版本号(1字节) + 编码方式(1字节) + 原始 UTF-8 字节长度(4字节) + 数据。
+ * 不带魔数的数据按 JDK 序列化格式读取，兼容切换前写入的旧缓存。
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/4
+ */
+public class CompressedStringRedisSerializer implements RedisSerializer<String> {
+
+    private static final byte MAGIC = 0x4E;
+
+    private static final byte VERSION = 1;
+
+    private static final int HEADER_LENGTH = 7;
+
+    /**
+     * 编码方式：原始 UTF-8
+     */
+    public static final byte CODEC_RAW = 0;
+
+    /**
+     * 编码方式：UTF-8 + Deflate 压缩
+     */
+    public static final byte CODEC_DEFLATE = 1;
+
+    /**
+     * 小于该字节数的内容不压缩
+     */
+    private static final int MIN_COMPRESS_SIZE = 512;
+
+    private static final RedisSerializer<Object> LEGACY_SERIALIZER = RedisSerializer.java();
+
+    private final byte codec;
+
+    private final DistributionSummary originalSizeSummary;
+
+    private final DistributionSummary storedSizeSummary;
+
+    public CompressedStringRedisSerializer(String cacheName, byte codec,
+        MeterRegistry meterRegistry) {
+        this.codec = codec;
+        this.originalSizeSummary = DistributionSummary.builder("novel.cache.value.size")
+            .description("缓存内容序列化前的字节数")
+            .baseUnit("bytes")
+            .tag("cache", cacheName)
+            .tag("type", "original")
+            .register(meterRegistry);
+        this.storedSizeSummary = DistributionSummary.builder("novel.cache.value.size")
+            .description("缓存内容写入 Redis 的字节数")
+            .baseUnit("bytes")
+            .tag("cache", cacheName)
+            .tag("type", "stored")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(String value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        byte useCodec = data.length < MIN_COMPRESS_SIZE ? CODEC_RAW : codec;
+        byte[] payload = useCodec == CODEC_DEFLATE ? deflate(data) : data;
+        byte[] result = ByteBuffer.allocate(HEADER_LENGTH + payload.length)
+            .put(MAGIC).put(VERSION).put(useCodec).putInt(data.length)
+            .put(payload)
+            .array();
+        originalSizeSummary.record(data.length);
+        storedSizeSummary.record(result.length);
+        return result;
+    }
+
+    @Override
+    public String deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC) {
+            // 旧格式缓存
+            return (String) LEGACY_SERIALIZER.deserialize(bytes);
+        }
+        if (bytes[1] != VERSION) {
+            throw new SerializationException("Unsupported cache value version: " + bytes[1]);
+        }
+        int length = ByteBuffer.wrap(bytes, 3, 4).getInt();
+        return switch (bytes[2]) {
+            case CODEC_RAW -> new String(bytes, HEADER_LENGTH, length, StandardCharsets.UTF_8);
+            case CODEC_DEFLATE -> new String(inflate(bytes, length), StandardCharsets.UTF_8);
+            default -> throw new SerializationException("Unsupported cache value codec: " + bytes[2]);
+        };
+    }
+
+    private byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] bytes, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            // 头部记录了原始长度，直接一次性解压到目标数组
+            byte[] result = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int count = inflater.inflate(result, offset, length - offset);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != length) {
+                throw new SerializationException("Corrupted cache value, expected " + length
+                    + " bytes but got " + offset);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupted cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
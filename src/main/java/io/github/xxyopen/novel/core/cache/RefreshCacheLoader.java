@@ -0,0 +1,41 @@
+package io.github.xxyopen.novel.core.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import java.util.function.Function;
+
+/**
+ * 只负责后台刷新的 Caffeine 缓存加载器
+ * <p>
+ * 缓存未命中时返回 null，仍由 @Cacheable 方法加载并写入缓存；缓存项到达 refreshAfterWrite 时间后被访问，
+ * Caffeine 会在后台线程中调用 reload 重新加载，刷新完成前继续返回旧值，避免缓存过期时请求集中打到数据库
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/5
+ */
+public class RefreshCacheLoader implements CacheLoader<Object, Object> {
+
+    private final String cacheName;
+
+    private final CacheReloadRegistry registry;
+
+    public RefreshCacheLoader(String cacheName, CacheReloadRegistry registry) {
+        this.cacheName = cacheName;
+        this.registry = registry;
+    }
+
+    @Override
+    public Object load(Object key) {
+        return null;
+    }
+
+    @Override
+    public Object reload(Object key, Object oldValue) {
+        Function<Object, Object> reloader = registry.getReloader(cacheName);
+        if (reloader == null) {
+            // 返回 null 表示删除缓存项；返回旧值会重置写入时间，缓存项将永远不会过期
+            return null;
+        }
+        return reloader.apply(key);
+    }
+
+}
@@ -0,0 +1,167 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 本地（Caffeine）+ 远程（Redis）两级缓存
+ * <p>
+ * 读：先读本地，未命中再读远程，远程命中后回填本地，加载回填不通知其他节点；
+ * 写和删除：同时作用于两级缓存，并通知其他节点失效本地副本。远程缓存是事务感知的，事务中的写和删除在提交后才执行，
+ * 本地缓存的写和删除及失效通知也随之推迟到提交后，避免其他节点在提交前从远程回填旧值
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/3
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+
+    private final Cache localCache;
+
+    private final Cache remoteCache;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    public TwoLevelCache(String name, Cache localCache, Cache remoteCache,
+        TwoLevelCacheManager cacheManager) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = localCache.get(key);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        wrapper = remoteCache.get(key);
+        if (wrapper != null) {
+            // 远程命中，回填本地缓存
+            localCache.put(key, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        // 借助本地缓存的原子加载，同一节点上同一个 key 只有一个线程执行加载；
+        // 读写远程缓存都在原子加载之外，避免 Redis 的网络 I/O 占用本地缓存的锁
+        AtomicBoolean loaded = new AtomicBoolean();
+        T value = localCache.get(key, () -> {
+            loaded.set(true);
+            return valueLoader.call();
+        });
+        if (loaded.get()) {
+            // 加载的值与数据库一致，其他节点的本地副本无需失效
+            remoteCache.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        afterCommit(() -> {
+            localCache.put(key, value);
+            cacheManager.publishInvalidate(this.name, key);
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        // 先删远程再删本地，避免本地删除后又从远程回填旧值
+        remoteCache.evict(key);
+        afterCommit(() -> {
+            localCache.evict(key);
+            cacheManager.publishInvalidate(this.name, key);
+        });
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        afterCommit(() -> {
+            localCache.clear();
+            cacheManager.publishInvalidate(this.name, null);
+        });
+    }
+
+    /**
+     * 有事务时在事务提交后执行，否则立即执行
+     * <p>
+     * 远程缓存在提交后的同步回调中先注册，因此提交后仍然先写/删远程再写/删本地
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 仅查询远程缓存，不回填本地
+     * <p>
+     * 供本地缓存正在原子加载同一个 key 时使用（如 @Cacheable(sync = true) 内部），此时再读本地缓存会在同一线程中
+     * 重复加载同一个 key，Caffeine 会抛出 Recursive update 异常
+     */
+    public ValueWrapper getRemote(Object key) {
+        return remoteCache.get(key);
+    }
+
+    /**
+     * 仅失效本地缓存中的 key，由其他节点的失效消息触发
+     */
+    public void evictLocal(Object key) {
+        localCache.evict(key);
+    }
+
+    /**
+     * 仅清空本地缓存，由其他节点的失效消息触发
+     */
+    public void clearLocal() {
+        localCache.clear();
+    }
+
+}
@@ -0,0 +1,93 @@
+package io.github.xxyopen.novel.core.cache;
+
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 本地+远程两级缓存管理器，管理 CacheEnum 中类型为 1（本地和远程）的缓存
+ * <p>
+ * 缓存写入或删除后通过 Redis 频道广播失效消息，其他节点收到后失效自己的本地副本
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/3
+ */
+@Slf4j
+public class TwoLevelCacheManager extends AbstractCacheManager implements MessageListener {
+
+    /**
+     * 当前节点标识
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheManager localCacheManager;
+
+    private final CacheManager remoteCacheManager;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public TwoLevelCacheManager(CacheManager localCacheManager, CacheManager remoteCacheManager,
+        RedisTemplate<String, Object> redisTemplate) {
+        this.localCacheManager = localCacheManager;
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<TwoLevelCache> caches = new ArrayList<>();
+        for (var c : CacheConsts.CacheEnum.values()) {
+            if (c.isLocalAndRemote()) {
+                caches.add(new TwoLevelCache(c.getName(),
+                    Objects.requireNonNull(localCacheManager.getCache(c.getName())),
+                    Objects.requireNonNull(remoteCacheManager.getCache(c.getName())), this));
+            }
+        }
+        return caches;
+    }
+
+    /**
+     * 广播本地缓存失效消息
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存 key，为 null 时表示清空
+     */
+    public void publishInvalidate(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(CacheConsts.CACHE_INVALIDATE_CHANNEL,
+                new CacheInvalidateMessage(nodeId, cacheName, key));
+        } catch (Exception e) {
+            // 广播失败时其他节点的本地副本只能等待过期
+            log.error("两级缓存失效消息发送失败，cacheName:{}，key:{}", cacheName, key, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!(redisTemplate.getValueSerializer()
+            .deserialize(message.getBody()) instanceof CacheInvalidateMessage msg)) {
+            return;
+        }
+        if (nodeId.equals(msg.nodeId())) {
+            return;
+        }
+        if (getCache(msg.cacheName()) instanceof TwoLevelCache cache) {
+            if (msg.key() == null) {
+                cache.clearLocal();
+            } else {
+                cache.evictLocal(msg.key());
+            }
+        }
+    }
+
+}
@@ -1,5 +1,8 @@
 package io.github.xxyopen.novel.core.common.resp;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
 import lombok.Getter;
@@ -11,7 +14,10 @@ import lombok.Getter;
  * @date 2022/5/11
  */
 @Getter
-public class PageRespDto<T> {
+public class PageRespDto<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * 页码
@@ -24,7 +30,7 @@ public class PageRespDto<T> {
     private final long pageSize;
 
     /**
-     * 总记录数
+     * 总记录数，未统计时为 -1
      */
     private final long total;
 
@@ -33,28 +39,72 @@ public class PageRespDto<T> {
      */
     private final List<? extends T> list;
 
+    /**
+     * 下一页游标，仅游标分页时返回，为 null 表示没有下一页
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String nextCursor;
+
+    /**
+     * 是否有下一页，仅不统计总记录数时返回
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Boolean hasNext;
+
     /**
      * 该构造函数用于通用分页查询的场景 接收普通分页数据和普通集合
      */
     public PageRespDto(long pageNum, long pageSize, long total, List<T> list) {
+        this(pageNum, pageSize, total, list, null);
+    }
+
+    /**
+     * 该构造函数用于游标分页的场景 额外接收下一页游标
+     */
+    public PageRespDto(long pageNum, long pageSize, long total, List<T> list,
+        String nextCursor) {
         this.pageNum = pageNum;
         this.pageSize = pageSize;
         this.total = total;
         this.list = list;
+        this.nextCursor = nextCursor;
+        this.hasNext = null;
+    }
+
+    /**
+     * 该构造函数用于不统计总记录数的场景 接收是否有下一页
+     */
+    public PageRespDto(long pageNum, long pageSize, List<T> list, boolean hasNext) {
+        this.pageNum = pageNum;
+        this.pageSize = pageSize;
+        this.total = -1;
+        this.list = list;
+        this.nextCursor = null;
+        this.hasNext = hasNext;
     }
 
     public static <T> PageRespDto<T> of(long pageNum, long pageSize, long total, List<T> list) {
         return new PageRespDto<>(pageNum, pageSize, total, list);
     }
+
+    public static <T> PageRespDto<T> ofCursor(long pageNum, long pageSize, long total,
+        List<T> list, String nextCursor) {
+        return new PageRespDto<>(pageNum, pageSize, total, list, nextCursor);
+    }
+
+    public static <T> PageRespDto<T> ofHasNext(long pageNum, long pageSize, List<T> list,
+        boolean hasNext) {
+        return new PageRespDto<>(pageNum, pageSize, list, hasNext);
+    }
     public static <T> PageRespDto<T> empty() {
         return new PageRespDto<>(0, 0, 0,Collections.emptyList());
     }
 
     /**
-     * 获取分页数
+     * 获取分页数，未统计总记录数时为 0
      */
     public long getPages() {
-        if (this.pageSize == 0L) {
+        if (this.pageSize == 0L || this.total < 0L) {
             return 0L;
         } else {
             long pages = this.total / this.pageSize;
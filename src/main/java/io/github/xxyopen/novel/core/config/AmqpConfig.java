@@ -6,6 +6,13 @@ import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -18,6 +25,14 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class AmqpConfig {
 
+    /**
+     * 消息使用 JSON 序列化，RabbitTemplate 和监听容器都会使用该转换器
+     */
+    @Bean
+    public MessageConverter messageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
     /**
      * 小说信息改变交换机
      */
@@ -42,11 +57,40 @@ public class AmqpConfig {
         return BindingBuilder.bind(esBookUpdateQueue()).to(bookChangeExchange());
     }
 
+    /**
+     * Elasticsearch book 索引更新队列的批量消费容器工厂：攒够 batchSize 条消息或等待 batchTimeout 毫秒后
+     * 作为一批交给监听器，监听器处理成功后整批确认
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring", name = {"elasticsearch.enabled",
+        "amqp.enabled"}, havingValue = "true")
+    public SimpleRabbitListenerContainerFactory esBookUpdateContainerFactory(
+        SimpleRabbitListenerContainerFactoryConfigurer configurer,
+        ConnectionFactory connectionFactory,
+        @Value("${novel.es.update.batch-size:200}") int batchSize,
+        @Value("${novel.es.update.batch-timeout:1000}") long batchTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchTimeout);
+        // 预取数量不小于批次大小，否则凑不满一批
+        factory.setPrefetchCount(batchSize);
+        return factory;
+    }
+
+    /**
+     * Redis book 缓存更新队列
+     */
     @Bean
     public Queue redisUpdateQueue() {
         return new Queue(AmqpConsts.BookChangeMq.QUEUE_REDIS_UPDATE);
     }
 
+    /**
+     * Redis book 缓存更新队列绑定到小说信息改变交换机
+     */
     @Bean
     public Binding redisUpdateBinding() {
         return BindingBuilder.bind(redisUpdateQueue()).to(bookChangeExchange());
@@ -1,23 +1,35 @@
 package io.github.xxyopen.novel.core.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.xxyopen.novel.core.cache.CacheReloadRegistry;
+import io.github.xxyopen.novel.core.cache.CompressedStringRedisSerializer;
+import io.github.xxyopen.novel.core.cache.RefreshCacheLoader;
+import io.github.xxyopen.novel.core.cache.TwoLevelCacheManager;
 import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 /**
  * 缓存配置类
@@ -28,12 +40,20 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 @Configuration
 public class CacheConfig {
 
+    /**
+     * 缓存重新加载函数注册表，各缓存管理类在初始化时注册自己的加载函数
+     */
+    @Bean
+    public CacheReloadRegistry cacheReloadRegistry() {
+        return new CacheReloadRegistry();
+    }
+
     /**
      * Caffeine 缓存管理器
      */
     @Bean  // 将方法的返回值注入为 Bean
     @Primary  // 设置该 Bean 为默认的 CacheManager
-    public CacheManager caffeineCacheManager() {
+    public CacheManager caffeineCacheManager(CacheReloadRegistry cacheReloadRegistry) {
         SimpleCacheManager cacheManager = new SimpleCacheManager();
 
         // 创建一个空的 CaffeineCache 列表
@@ -59,6 +79,16 @@ public class CacheConfig {
                      */
                     caffeine.expireAfterWrite(Duration.ofSeconds(c.getTtl()));
                 }
+                if (c.getRefreshTime() > 0) {
+                    /**
+                     * refreshAfterWrite() 方法用来设置写入后多久刷新，刷新在后台异步执行，刷新完成前继续返回旧值，
+                     * 需要配合 CacheLoader 构建 LoadingCache 使用
+                     */
+                    caffeine.refreshAfterWrite(Duration.ofSeconds(c.getRefreshTime()));
+                    caches.add(new CaffeineCache(c.getName(),
+                        caffeine.build(new RefreshCacheLoader(c.getName(), cacheReloadRegistry))));
+                    continue;
+                }
                 // 构造 CaffeineCache 对象，并添加到缓存列表,参数是缓存的名称和一个 Caffeine 对象
                 caches.add(new CaffeineCache(c.getName(), caffeine.build()));
             }
@@ -74,13 +104,15 @@ public class CacheConfig {
      * Redis 缓存管理器
      */
     @Bean
-    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+        MeterRegistry meterRegistry) {
         /**
          * RedisCacheWriter 是一个接口，用于将 Redis 用作缓存的缓存写入器。它定义了用于访问和更新 Redis 的 API。
          * 该实现是非阻塞式写入器，可以在不进行锁定的情况下执行所有 Redis 缓存写操作
+         * 开启统计后，Actuator 会暴露各 Redis 缓存的命中/未命中指标
          */
         RedisCacheWriter redisCacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(
-            connectionFactory);
+            connectionFactory).withStatisticsCollector(CacheStatisticsCollector.create());
         RedisCacheConfiguration defaultCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
             .disableCachingNullValues().prefixCacheNameWith(CacheConsts.REDIS_CACHE_PREFIX);
         //缓存名称和缓存配置的映射表
@@ -101,6 +133,11 @@ public class CacheConfig {
                 }
             }
         }
+        // 小说内容以压缩后的二进制格式存储
+        cacheMap.computeIfPresent(CacheConsts.BOOK_CONTENT_CACHE_NAME,
+            (name, config) -> config.serializeValuesWith(SerializationPair.fromSerializer(
+                new CompressedStringRedisSerializer(name,
+                    CompressedStringRedisSerializer.CODEC_DEFLATE, meterRegistry))));
 
         RedisCacheManager redisCacheManager = new RedisCacheManager(redisCacheWriter,
             defaultCacheConfig, cacheMap);
@@ -113,5 +150,34 @@ public class CacheConfig {
         return redisCacheManager;
     }
 
+    /**
+     * 本地+远程两级缓存管理器，本地缓存和远程缓存分别复用 Caffeine 和 Redis 缓存管理器中的同名缓存
+     */
+    @Bean
+    public TwoLevelCacheManager localRemoteCacheManager(
+        @Qualifier(CacheConsts.CAFFEINE_CACHE_MANAGER) CacheManager caffeineCacheManager,
+        @Qualifier(CacheConsts.REDIS_CACHE_MANAGER) CacheManager redisCacheManager,
+        RedisConnectionFactory connectionFactory) {
+        // 失效消息使用 JDK 序列化，保证 key 的类型在各节点间保持一致
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(RedisSerializer.java());
+        redisTemplate.afterPropertiesSet();
+        return new TwoLevelCacheManager(caffeineCacheManager, redisCacheManager, redisTemplate);
+    }
+
+    /**
+     * 订阅两级缓存失效频道，收到其他节点的失效消息后清除本地副本
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidateListenerContainer(
+        RedisConnectionFactory connectionFactory, TwoLevelCacheManager localRemoteCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(localRemoteCacheManager,
+            new ChannelTopic(CacheConsts.CACHE_INVALIDATE_CHANNEL));
+        return container;
+    }
 
 }
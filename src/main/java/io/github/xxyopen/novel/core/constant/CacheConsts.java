@@ -24,6 +24,16 @@ public class CacheConsts {
      */
     public static final String REDIS_CACHE_MANAGER = "redisCacheManager";
 
+    /**
+     * 本地+远程两级缓存管理器
+     */
+    public static final String LOCAL_REMOTE_CACHE_MANAGER = "localRemoteCacheManager";
+
+    /**
+     * 两级缓存本地副本失效通知的 Redis 频道
+     */
+    public static final String CACHE_INVALIDATE_CHANNEL = REDIS_CACHE_PREFIX + "invalidateChannel";
+
     /**
      * 首页小说推荐缓存
      */
@@ -39,6 +49,55 @@ public class CacheConsts {
      */
     public static final String BOOK_VISIT_RANK_CACHE_NAME = "bookVisitRankCache";
 
+    /**
+     * 小说点击榜初始化完成标记 KEY，点击榜中包含所有小说后才设置
+     */
+    public static final String BOOK_VISIT_RANK_INIT_KEY = REDIS_CACHE_PREFIX + "bookVisitRankInit";
+
+    /**
+     * 小说点击量待持久化增量 KEY（Hash，小说ID -> 增量）
+     */
+    public static final String BOOK_VISIT_DIRTY_KEY = REDIS_CACHE_PREFIX + "bookVisitDirty";
+
+    /**
+     * 正在持久化的小说点击量增量 KEY
+     */
+    public static final String BOOK_VISIT_PERSISTING_KEY =
+        REDIS_CACHE_PREFIX + "bookVisitPersisting";
+
+    /**
+     * 小说每小时点击量桶 KEY 前缀，后接 yyyyMMddHH
+     */
+    public static final String BOOK_VISIT_HOUR_BUCKET_KEY_PREFIX =
+        REDIS_CACHE_PREFIX + "bookVisitHourBucket::";
+
+    /**
+     * 小说每天点击量桶 KEY 前缀，后接 yyyyMMdd
+     */
+    public static final String BOOK_VISIT_DAY_BUCKET_KEY_PREFIX =
+        REDIS_CACHE_PREFIX + "bookVisitDayBucket::";
+
+    /**
+     * 小说日点击榜（最近 24 小时）KEY
+     */
+    public static final String BOOK_DAY_VISIT_RANK_KEY = REDIS_CACHE_PREFIX + "bookDayVisitRank";
+
+    /**
+     * 小说周点击榜（最近 7 天）KEY
+     */
+    public static final String BOOK_WEEK_VISIT_RANK_KEY = REDIS_CACHE_PREFIX + "bookWeekVisitRank";
+
+    /**
+     * 小说月点击榜（最近 30 天）KEY
+     */
+    public static final String BOOK_MONTH_VISIT_RANK_KEY =
+        REDIS_CACHE_PREFIX + "bookMonthVisitRank";
+
+    /**
+     * 小说日/周/月点击榜缓存
+     */
+    public static final String BOOK_PERIOD_VISIT_RANK_CACHE_NAME = "bookPeriodVisitRankCache";
+
     /**
      * 小说新书榜缓存
      */
@@ -49,6 +108,26 @@ public class CacheConsts {
      */
     public static final String BOOK_UPDATE_RANK_CACHE_NAME = "bookUpdateRankCache";
 
+    /**
+     * 小说新书榜 KEY（ZSET，小说ID -> 创建时间戳），只保留前 30 名
+     */
+    public static final String BOOK_NEWEST_RANK_KEY = REDIS_CACHE_PREFIX + "bookNewestRank";
+
+    /**
+     * 小说更新榜 KEY（ZSET，小说ID -> 更新时间戳），只保留前 30 名
+     */
+    public static final String BOOK_UPDATE_RANK_KEY = REDIS_CACHE_PREFIX + "bookUpdateRank";
+
+    /**
+     * 小说新书榜初始化完成标记 KEY，从数据库初始化新书榜后设置
+     */
+    public static final String BOOK_NEWEST_RANK_INIT_KEY = REDIS_CACHE_PREFIX + "bookNewestRankInit";
+
+    /**
+     * 小说更新榜初始化完成标记 KEY，从数据库初始化更新榜后设置
+     */
+    public static final String BOOK_UPDATE_RANK_INIT_KEY = REDIS_CACHE_PREFIX + "bookUpdateRankInit";
+
     /**
      * 首页友情链接缓存
      */
@@ -69,6 +148,16 @@ public class CacheConsts {
      */
     public static final String BOOK_CHAPTER_CACHE_NAME = "bookChapterCache";
 
+    /**
+     * 小说章节目录索引缓存
+     */
+    public static final String BOOK_CHAPTER_INDEX_CACHE_NAME = "bookChapterIndexCache";
+
+    /**
+     * 小说章节目录缓存
+     */
+    public static final String BOOK_CHAPTER_CATALOG_CACHE_NAME = "bookChapterCatalogCache";
+
     /**
      * 小说内容缓存
      */
@@ -95,6 +184,38 @@ public class CacheConsts {
      */
     public static final String AUTHOR_INFO_CACHE_NAME = "authorInfoCache";
 
+    /**
+     * 小说搜索结果缓存
+     */
+    public static final String BOOK_SEARCH_CACHE_NAME = "bookSearchCache";
+
+    /**
+     * 小说搜索空结果缓存
+     */
+    public static final String BOOK_SEARCH_EMPTY_CACHE_NAME = "bookSearchEmptyCache";
+
+    /**
+     * 小说搜索结果数量缓存
+     */
+    public static final String BOOK_SEARCH_COUNT_CACHE_NAME = "bookSearchCountCache";
+
+    /**
+     * 小说搜索分面统计缓存（只按过滤条件统计）
+     */
+    public static final String BOOK_SEARCH_FACET_CACHE_NAME = "bookSearchFacetCache";
+
+    /**
+     * 小说所在搜索结果缓存 KEY 前缀（Set，后接小说ID），用于小说变更时清除相关的搜索结果缓存
+     */
+    public static final String BOOK_SEARCH_INDEX_KEY_PREFIX =
+        REDIS_CACHE_PREFIX + "bookSearchIndex::";
+
+    /**
+     * 小说 ES 增量同步水位 KEY（最后一次同步到的小说更新时间）
+     */
+    public static final String BOOK_ES_SYNC_WATERMARK_KEY =
+        REDIS_CACHE_PREFIX + "bookEsSyncWatermark";
+
     /**
      * 缓存配置常量
      */
@@ -114,11 +235,15 @@ public class CacheConsts {
         /**
          * 小说新书榜缓存
          */
-        BOOK_NEWEST_RANK_CACHE(0, BOOK_NEWEST_RANK_CACHE_NAME, 60 * 60 * 6, 1),
+        BOOK_NEWEST_RANK_CACHE(1, BOOK_NEWEST_RANK_CACHE_NAME, 60 * 60 * 6, 1, 60 * 60),
         /**
          * 小说更新榜缓存
          */
-        BOOK_UPDATE_RANK_CACHE(0, BOOK_UPDATE_RANK_CACHE_NAME, 60, 1),
+        BOOK_UPDATE_RANK_CACHE(1, BOOK_UPDATE_RANK_CACHE_NAME, 60, 1, 30),
+        /**
+         * 小说日/周/月点击榜缓存
+         */
+        BOOK_PERIOD_VISIT_RANK_CACHE(0, BOOK_PERIOD_VISIT_RANK_CACHE_NAME, 60, 3),
         /**
          * 首页友情链接缓存
          */
@@ -130,11 +255,19 @@ public class CacheConsts {
         /**
          * 小说信息缓存
          */
-        BOOK_INFO_CACHE(0, BOOK_INFO_CACHE_NAME, 60 * 60 * 18, 500),
+        BOOK_INFO_CACHE(1, BOOK_INFO_CACHE_NAME, 60 * 60 * 18, 500, 60 * 60 * 6),
         /**
          * 小说章节缓存
          */
-        BOOK_CHAPTER_CACHE(0, BOOK_CHAPTER_CACHE_NAME, 60 * 60 * 6, 5000),
+        BOOK_CHAPTER_CACHE(1, BOOK_CHAPTER_CACHE_NAME, 60 * 60 * 6, 5000),
+        /**
+         * 小说章节目录索引缓存
+         */
+        BOOK_CHAPTER_INDEX_CACHE(1, BOOK_CHAPTER_INDEX_CACHE_NAME, 60 * 60 * 6, 1000),
+        /**
+         * 小说章节目录缓存
+         */
+        BOOK_CHAPTER_CATALOG_CACHE(1, BOOK_CHAPTER_CATALOG_CACHE_NAME, 60 * 60 * 6, 200),
         /**
          * 小说内容缓存
          */
@@ -150,7 +283,23 @@ public class CacheConsts {
         /**
          * 作家信息缓存
          */
-        AUTHOR_INFO_CACHE(2, AUTHOR_INFO_CACHE_NAME, 60 * 60 * 48, 1000);
+        AUTHOR_INFO_CACHE(2, AUTHOR_INFO_CACHE_NAME, 60 * 60 * 48, 1000),
+        /**
+         * 小说搜索结果缓存
+         */
+        BOOK_SEARCH_CACHE(1, BOOK_SEARCH_CACHE_NAME, 60 * 5, 1000),
+        /**
+         * 小说搜索空结果缓存
+         */
+        BOOK_SEARCH_EMPTY_CACHE(1, BOOK_SEARCH_EMPTY_CACHE_NAME, 30, 1000),
+        /**
+         * 小说搜索结果数量缓存
+         */
+        BOOK_SEARCH_COUNT_CACHE(0, BOOK_SEARCH_COUNT_CACHE_NAME, 60, 1000),
+        /**
+         * 小说搜索分面统计缓存
+         */
+        BOOK_SEARCH_FACET_CACHE(1, BOOK_SEARCH_FACET_CACHE_NAME, 60 * 10, 500);
 
         /**
          * 缓存类型 0-本地 1-本地和远程 2-远程
@@ -168,12 +317,21 @@ public class CacheConsts {
          * 最大容量
          */
         private int maxSize;
+        /**
+         * 本地缓存写入后多久在后台刷新（秒） 0-不刷新，需小于失效时间
+         */
+        private int refreshTime;
 
         CacheEnum(int type, String name, int ttl, int maxSize) {
+            this(type, name, ttl, maxSize, 0);
+        }
+
+        CacheEnum(int type, String name, int ttl, int maxSize, int refreshTime) {
             this.type = type;
             this.name = name;
             this.ttl = ttl;
             this.maxSize = maxSize;
+            this.refreshTime = refreshTime;
         }
 
         public boolean isLocal() {
@@ -184,6 +342,10 @@ public class CacheConsts {
             return type >= 1;
         }
 
+        public boolean isLocalAndRemote() {
+            return type == 1;
+        }
+
         public String getName() {
             return name;
         }
@@ -196,6 +358,10 @@ public class CacheConsts {
             return maxSize;
         }
 
+        public int getRefreshTime() {
+            return refreshTime;
+        }
+
     }
 
 }
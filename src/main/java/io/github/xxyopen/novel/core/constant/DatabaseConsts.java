@@ -98,12 +98,16 @@ public class DatabaseConsts {
 
         public static final String AUTHOR_ID = "author_id";
 
+        public static final String COLUMN_AUTHOR_NAME = "author_name";
+
         public static final String COLUMN_VISIT_COUNT = "visit_count";
 
         public static final String COLUMN_WORD_COUNT = "word_count";
 
         public static final String COLUMN_LAST_CHAPTER_UPDATE_TIME = "last_chapter_update_time";
 
+        public static final String COLUMN_FIRST_CHAPTER_ID = "first_chapter_id";
+
     }
 
     /**
@@ -119,6 +123,10 @@ public class DatabaseConsts {
 
         public static final String COLUMN_CHAPTER_NUM = "chapter_num";
 
+        public static final String COLUMN_CHAPTER_NAME = "chapter_name";
+
+        public static final String COLUMN_IS_VIP = "is_vip";
+
         public static final String COLUMN_LAST_CHAPTER_UPDATE_TIME = "last_chapter_update_time";
 
     }
@@ -22,10 +22,15 @@ public class EsConsts {
         }
 
         /**
-         * 索引名
+         * 索引名（别名，指向当前版本的索引）
          */
         public static final String INDEX_NAME = "book";
 
+        /**
+         * 索引的 settings 和 mappings 定义文件
+         */
+        public static final String INDEX_DEFINITION_LOCATION = "es/book-index.json";
+
         /**
          * id
          */
@@ -111,6 +116,11 @@ public class EsConsts {
          */
         public static final String FIELD_IS_VIP = "isVip";
 
+        /**
+         * 文档在分片中的位置（内置字段），时间点搜索时作为排序的最后一个字段保证顺序唯一
+         */
+        public static final String FIELD_SHARD_DOC = "_shard_doc";
+
     }
 
 }
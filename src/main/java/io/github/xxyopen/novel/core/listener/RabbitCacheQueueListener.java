@@ -0,0 +1,57 @@
+package io.github.xxyopen.novel.core.listener;
+
+import io.github.xxyopen.novel.core.constant.AmqpConsts;
+import io.github.xxyopen.novel.dto.mq.BookChangeMsgDto;
+import io.github.xxyopen.novel.manager.cache.BookChapterCatalogCacheManager;
+import io.github.xxyopen.novel.manager.cache.BookChapterIndexCacheManager;
+import io.github.xxyopen.novel.manager.cache.BookInfoCacheManager;
+import io.github.xxyopen.novel.manager.cache.BookSearchCacheManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rabbit 缓存更新队列监听器
+ * <p>
+ * 两级缓存写入和删除时会广播失效消息，一个节点消费即可刷新所有节点的缓存
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/12
+ */
+@Component
+@ConditionalOnProperty(prefix = "spring", name = "amqp.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class RabbitCacheQueueListener {
+
+    private final BookInfoCacheManager bookInfoCacheManager;
+
+    private final BookChapterIndexCacheManager bookChapterIndexCacheManager;
+
+    private final BookChapterCatalogCacheManager bookChapterCatalogCacheManager;
+
+    private final BookSearchCacheManager bookSearchCacheManager;
+
+    /**
+     * 监听小说信息改变的 Redis 更新队列，刷新小说信息和章节缓存
+     * <p>
+     * 新发布的章节此前不可能被缓存，已有章节的信息没有改变，受影响的只有小说级缓存（上一章/下一章由章节索引计算）
+     */
+    @RabbitListener(queues = AmqpConsts.BookChangeMq.QUEUE_REDIS_UPDATE)
+    public void updateBookCache(BookChangeMsgDto msg) {
+        if (msg.getChapterId() == null) {
+            // 还没有发布章节的小说不能构建小说信息缓存，只清除
+            bookInfoCacheManager.evictBookInfoCache(msg.getBookId());
+            return;
+        }
+        bookChapterIndexCacheManager.evictChapterIndexCache(msg.getBookId());
+        bookChapterCatalogCacheManager.evictChapterCatalogCache(msg.getBookId());
+        bookSearchCacheManager.evictSearchCache(msg.getBookId());
+        bookInfoCacheManager.cachePutBookInfo(msg.getBookId());
+        log.debug("Refreshed book cache, bookId:{}，chapterId:{}", msg.getBookId(),
+            msg.getChapterId());
+    }
+
+}
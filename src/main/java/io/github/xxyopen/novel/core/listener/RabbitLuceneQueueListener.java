@@ -0,0 +1,44 @@
+package io.github.xxyopen.novel.core.listener;
+
+import io.github.xxyopen.novel.core.constant.AmqpConsts;
+import io.github.xxyopen.novel.dto.mq.BookChangeMsgDto;
+import io.github.xxyopen.novel.manager.search.BookLuceneIndexManager;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rabbit Lucene 索引更新监听器
+ * <p>
+ * Lucene 索引在每个节点本地，每个节点都声明自己的匿名队列（节点下线时自动删除）绑定到小说信息改变交换机，
+ * 保证每个节点都能收到所有消息
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/13
+ */
+@Component
+@ConditionalOnExpression("${spring.amqp.enabled:false} and '${spring.elasticsearch.enabled}' == 'false' and ${novel.search.lucene.enabled:false}")
+@RequiredArgsConstructor
+public class RabbitLuceneQueueListener {
+
+    private final BookLuceneIndexManager bookLuceneIndexManager;
+
+    /**
+     * 监听小说信息改变消息，更新本地 Lucene 索引
+     */
+    @RabbitListener(bindings = @QueueBinding(value = @Queue,
+        exchange = @Exchange(value = AmqpConsts.BookChangeMq.EXCHANGE_NAME,
+            type = ExchangeTypes.FANOUT)))
+    @SneakyThrows
+    public void updateLuceneBook(BookChangeMsgDto msg) {
+        bookLuceneIndexManager.updateBooks(List.of(msg.getBookId()));
+    }
+
+}
@@ -1,18 +1,23 @@
 package io.github.xxyopen.novel.core.listener;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch.core.IndexResponse;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import io.github.xxyopen.novel.core.constant.AmqpConsts;
 import io.github.xxyopen.novel.core.constant.EsConsts;
 import io.github.xxyopen.novel.dao.entity.BookInfo;
 import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
 import io.github.xxyopen.novel.dto.es.EsBookDto;
+import io.github.xxyopen.novel.dto.mq.BookChangeMsgDto;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
 /**
@@ -34,20 +39,45 @@ public class RabbitQueueListener {
 
 
     /**
-     * 监听小说信息改变的 ES 更新队列，更新最新小说信息到 ES
+     * 批量监听小说信息改变的 ES 更新队列，通过一次 bulk 请求更新最新小说信息到 ES
+     * <p>
+     * 方法正常返回后整批消息确认；查询数据库或 bulk 请求失败时抛出异常，整批消息重新投递
      */
-    @RabbitListener(queues = AmqpConsts.BookChangeMq.QUEUE_ES_UPDATE)
+    @RabbitListener(queues = AmqpConsts.BookChangeMq.QUEUE_ES_UPDATE,
+        containerFactory = "esBookUpdateContainerFactory")
     @SneakyThrows
-    public void updateEsBook(Long bookId) {
-        BookInfo bookInfo = bookInfoMapper.selectById(bookId);
-        IndexResponse response = esClient.index(i -> i
-            .index(EsConsts.BookIndex.INDEX_NAME)
-            .id(bookInfo.getId().toString())
-            .document(EsBookDto.build(bookInfo))
-        );
-        log.info("Indexed with version " + response.version());
+    public void updateEsBooks(List<BookChangeMsgDto> msgs) {
+        // 同一批次中重复更新的小说只索引一次
+        Set<Long> distinctBookIds = new LinkedHashSet<>();
+        for (BookChangeMsgDto msg : msgs) {
+            distinctBookIds.add(msg.getBookId());
+        }
+        List<BookInfo> bookInfos = bookInfoMapper.selectBatchIds(distinctBookIds);
+        if (bookInfos.isEmpty()) {
+            return;
+        }
+        BulkRequest.Builder bulkBuilder = new BulkRequest.Builder();
+        for (BookInfo bookInfo : bookInfos) {
+            bulkBuilder.operations(op -> op
+                .index(i -> i
+                    .index(EsConsts.BookIndex.INDEX_NAME)
+                    .id(bookInfo.getId().toString())
+                    .document(EsBookDto.build(bookInfo))
+                )
+            );
+        }
+        BulkResponse response = esClient.bulk(bulkBuilder.build());
+        if (response.errors()) {
+            // 单个文档的错误（如映射错误）重试也无法成功，只记录日志，避免整批消息反复投递
+            for (BulkResponseItem item : response.items()) {
+                if (item.error() != null) {
+                    log.error("小说索引更新失败，bookId:{}，原因:{}", item.id(),
+                        item.error().reason());
+                }
+            }
+        }
+        log.info("Bulk indexed {} books from {} messages in {} ms", bookInfos.size(),
+            msgs.size(), response.took());
     }
 
-
-
 }
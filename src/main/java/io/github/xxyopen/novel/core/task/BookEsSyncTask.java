@@ -0,0 +1,336 @@
+package io.github.xxyopen.novel.core.task;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.core.constant.EsConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.dto.es.EsBookDto;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说 Elasticsearch 同步任务，替代 Logstash 定时同步
+ * <p>
+ * 1. 全量重建：按主键分批读取所有小说，并行 bulk 写入新版本的索引，完成后原子地把别名切换到新索引并删除旧索引
+ * <p>
+ * 2. 增量同步：按更新时间水位分批读取变更的小说，bulk 写入别名指向的当前索引
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/11
+ */
+@ConditionalOnProperty(prefix = "spring.elasticsearch", name = "enabled", havingValue = "true")
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookEsSyncTask {
+
+    private static final int BULK_THREADS = 4;
+
+    private static final String SYNC_LOCK_KEY = "Lock::esBookSync";
+
+    /**
+     * 增量同步时水位向前回退的时间，覆盖同步时还未提交的事务写入的更新时间
+     */
+    private static final Duration WATERMARK_OVERLAP = Duration.ofMinutes(1);
+
+    private static final DateTimeFormatter INDEX_VERSION_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final ElasticsearchClient esClient;
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RedissonClient redissonClient;
+
+    /**
+     * bulk 写入线程池，队列满时由读取数据库的线程自己写入，限制读取速度
+     */
+    private final ExecutorService bulkExecutor = new ThreadPoolExecutor(BULK_THREADS,
+        BULK_THREADS, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(BULK_THREADS),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+
+    /**
+     * 每分钟增量同步一次，还没有水位（首次部署或 Redis 数据丢失）或别名不存在时全量重建
+     */
+    @Scheduled(fixedDelay = 60 * 1000, initialDelay = 30 * 1000)
+    public void syncIncrementally() {
+        RLock lock = redissonClient.getLock(SYNC_LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            String watermark = redisTemplate.opsForValue()
+                .get(CacheConsts.BOOK_ES_SYNC_WATERMARK_KEY);
+            if (watermark == null || !aliasExists()) {
+                reindex();
+                return;
+            }
+            LocalDateTime from = LocalDateTime.parse(watermark).minus(WATERMARK_OVERLAP);
+            LocalDateTime to = LocalDateTime.now();
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            long total = loadUpdatedBooks(from, to, results);
+            if (!awaitAll(results)) {
+                // 不推进水位，下次重新同步这段时间内的变更
+                log.error("小说 ES 增量同步失败，from:{}，to:{}", from, to);
+                return;
+            }
+            redisTemplate.opsForValue().set(CacheConsts.BOOK_ES_SYNC_WATERMARK_KEY, to.toString());
+            if (total > 0) {
+                log.info("小说 ES 增量同步完成，共 {} 本小说", total);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 每天凌晨 4 点全量重建一次索引
+     */
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void fullReindex() {
+        RLock lock = redissonClient.getLock(SYNC_LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            reindex();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        bulkExecutor.shutdown();
+    }
+
+    /**
+     * 全量重建到新版本的索引并切换别名，重建期间的变更由之后的增量同步从重建开始时间补齐
+     */
+    @SneakyThrows
+    private void reindex() {
+        long start = System.currentTimeMillis();
+        LocalDateTime startTime = LocalDateTime.now();
+        String newIndex =
+            EsConsts.BookIndex.INDEX_NAME + "_" + INDEX_VERSION_FORMATTER.format(startTime);
+        createIndex(newIndex);
+        long total;
+        try {
+            total = buildIndex(newIndex);
+        } catch (Exception e) {
+            // 未切换别名的索引不会被 switchAlias 删除，需要在这里删除
+            log.error("小说 ES 全量重建失败，删除未完成的索引：{}", newIndex, e);
+            esClient.indices().delete(d -> d.index(newIndex));
+            return;
+        }
+        switchAlias(newIndex);
+        redisTemplate.opsForValue()
+            .set(CacheConsts.BOOK_ES_SYNC_WATERMARK_KEY, startTime.toString());
+        log.info("小说 ES 全量重建完成，索引：{}，共 {} 本小说，耗时 {} ms", newIndex, total,
+            System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 写入所有小说，然后恢复自动刷新并手动刷新一次，保证切换别名后立即可查
+     *
+     * @return 写入的小说数
+     */
+    private long buildIndex(String index) throws IOException {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        long total;
+        try {
+            total = loadAllBooks(index, results);
+        } catch (RuntimeException e) {
+            // 等待已提交的写入结束，避免索引删除后的写入重新创建索引
+            awaitAll(results);
+            throw e;
+        }
+        if (!awaitAll(results)) {
+            throw new IllegalStateException("部分小说写入索引失败");
+        }
+        // 写入期间关闭了自动刷新
+        esClient.indices().putSettings(p -> p
+            .index(index)
+            .settings(s -> s.refreshInterval(t -> t.time("1s"))));
+        esClient.indices().refresh(r -> r.index(index));
+        return total;
+    }
+
+    @SneakyThrows
+    private void createIndex(String index) {
+        try (InputStream in = new ClassPathResource(
+            EsConsts.BookIndex.INDEX_DEFINITION_LOCATION).getInputStream()) {
+            esClient.indices().create(c -> c.index(index).withJson(in));
+        }
+    }
+
+    /**
+     * 通过一次别名更新请求原子地把别名切换到新索引，然后删除旧索引
+     * <p>
+     * 旧版本由 Logstash 同步时，book 是实际的索引而不是别名，在同一个请求中删除
+     */
+    @SneakyThrows
+    private void switchAlias(String newIndex) {
+        List<String> oldIndices = new ArrayList<>();
+        boolean legacyIndex = false;
+        if (aliasExists()) {
+            oldIndices.addAll(esClient.indices()
+                .getAlias(g -> g.name(EsConsts.BookIndex.INDEX_NAME)).result().keySet());
+        } else {
+            legacyIndex = esClient.indices()
+                .exists(e -> e.index(EsConsts.BookIndex.INDEX_NAME)).value();
+        }
+        boolean removeLegacyIndex = legacyIndex;
+        esClient.indices().updateAliases(u -> {
+            u.actions(a -> a.add(t -> t.index(newIndex).alias(EsConsts.BookIndex.INDEX_NAME)));
+            for (String oldIndex : oldIndices) {
+                u.actions(a -> a.remove(t -> t.index(oldIndex)
+                    .alias(EsConsts.BookIndex.INDEX_NAME)));
+            }
+            if (removeLegacyIndex) {
+                u.actions(a -> a.removeIndex(t -> t.index(EsConsts.BookIndex.INDEX_NAME)));
+            }
+            return u;
+        });
+        if (!oldIndices.isEmpty()) {
+            esClient.indices().delete(d -> d.index(oldIndices));
+        }
+    }
+
+    @SneakyThrows
+    private boolean aliasExists() {
+        return esClient.indices().existsAlias(e -> e.name(EsConsts.BookIndex.INDEX_NAME))
+            .value();
+    }
+
+    /**
+     * 按主键分批读取所有小说并提交 bulk 写入
+     *
+     * @return 读取的小说数
+     */
+    private long loadAllBooks(String index, List<CompletableFuture<Boolean>> results) {
+        long maxId = 0L;
+        long total = 0L;
+        while (true) {
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.gt(DatabaseConsts.CommonColumnEnum.ID.getName(), maxId)
+                .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+            List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+            if (bookInfos.isEmpty()) {
+                return total;
+            }
+            results.add(submitBulk(index, bookInfos));
+            total += bookInfos.size();
+            maxId = bookInfos.get(bookInfos.size() - 1).getId();
+        }
+    }
+
+    /**
+     * 按 (更新时间, 主键) 分批读取 [from, to) 时间内更新的小说并提交 bulk 写入
+     *
+     * @return 读取的小说数
+     */
+    private long loadUpdatedBooks(LocalDateTime from, LocalDateTime to,
+        List<CompletableFuture<Boolean>> results) {
+        String updateTimeColumn = DatabaseConsts.CommonColumnEnum.UPDATE_TIME.getName();
+        String idColumn = DatabaseConsts.CommonColumnEnum.ID.getName();
+        LocalDateTime lastUpdateTime = from;
+        long lastId = 0L;
+        long total = 0L;
+        while (true) {
+            LocalDateTime afterUpdateTime = lastUpdateTime;
+            long afterId = lastId;
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.lt(updateTimeColumn, to)
+                .and(w -> w.gt(updateTimeColumn, afterUpdateTime)
+                    .or(o -> o.eq(updateTimeColumn, afterUpdateTime).gt(idColumn, afterId)))
+                .orderByAsc(updateTimeColumn, idColumn)
+                .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+            List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+            if (bookInfos.isEmpty()) {
+                return total;
+            }
+            results.add(submitBulk(EsConsts.BookIndex.INDEX_NAME, bookInfos));
+            total += bookInfos.size();
+            BookInfo last = bookInfos.get(bookInfos.size() - 1);
+            lastUpdateTime = last.getUpdateTime();
+            lastId = last.getId();
+        }
+    }
+
+    private CompletableFuture<Boolean> submitBulk(String index, List<BookInfo> bookInfos) {
+        return CompletableFuture.supplyAsync(() -> bulkIndex(index, bookInfos), bulkExecutor);
+    }
+
+    /**
+     * 通过一次 bulk 请求写入一批小说
+     *
+     * @return 是否全部写入成功
+     */
+    private boolean bulkIndex(String index, List<BookInfo> bookInfos) {
+        BulkRequest.Builder bulkBuilder = new BulkRequest.Builder();
+        for (BookInfo bookInfo : bookInfos) {
+            bulkBuilder.operations(op -> op
+                .index(i -> i
+                    .index(index)
+                    .id(bookInfo.getId().toString())
+                    .document(EsBookDto.build(bookInfo))
+                )
+            );
+        }
+        try {
+            BulkResponse response = esClient.bulk(bulkBuilder.build());
+            if (!response.errors()) {
+                return true;
+            }
+            for (BulkResponseItem item : response.items()) {
+                if (item.error() != null) {
+                    log.error("小说索引写入失败，index:{}，bookId:{}，原因:{}", index, item.id(),
+                        item.error().reason());
+                }
+            }
+        } catch (Exception e) {
+            log.error("小说索引批量写入失败，index:{}，本批共 {} 本小说", index, bookInfos.size(), e);
+        }
+        return false;
+    }
+
+    private boolean awaitAll(List<CompletableFuture<Boolean>> results) {
+        boolean success = true;
+        for (CompletableFuture<Boolean> result : results) {
+            success &= result.join();
+        }
+        return success;
+    }
+
+}
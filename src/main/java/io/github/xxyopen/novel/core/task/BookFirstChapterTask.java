@@ -0,0 +1,84 @@
+package io.github.xxyopen.novel.core.task;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.manager.dao.BookDaoManager;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说首章ID回填任务
+ * <p>
+ * 新发布的小说在发布第一章时写入首章ID，该任务为历史数据回填 book_info.first_chapter_id；
+ * 还没有章节的小说（字数为 0）会在发布第一章时写入，不需要回填，因此不再每晚重复扫描
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/6
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookFirstChapterTask {
+
+    private static final String BACKFILL_LOCK_KEY = "Lock::bookFirstChapterBackfill";
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final BookDaoManager bookDaoManager;
+
+    private final RedissonClient redissonClient;
+
+    /**
+     * 每天凌晨 3 点半按主键分批回填，多个节点中只有一个执行
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void backfillFirstChapterId() {
+        RLock lock = redissonClient.getLock(BACKFILL_LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            backfill();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void backfill() {
+        long maxId = 0L;
+        int updateCount = 0;
+        while (true) {
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName())
+                .isNull(DatabaseConsts.BookTable.COLUMN_FIRST_CHAPTER_ID)
+                .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0)
+                .gt(DatabaseConsts.CommonColumnEnum.ID.getName(), maxId)
+                .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+            List<Long> bookIds = bookInfoMapper.selectList(queryWrapper).stream()
+                .map(BookInfo::getId).toList();
+            if (bookIds.isEmpty()) {
+                break;
+            }
+            Map<Long, Long> firstChapterIdMap = bookDaoManager.listFirstChapterIds(bookIds);
+            for (Map.Entry<Long, Long> entry : firstChapterIdMap.entrySet()) {
+                BookInfo bookInfo = new BookInfo();
+                bookInfo.setId(entry.getKey());
+                bookInfo.setFirstChapterId(entry.getValue());
+                bookInfoMapper.updateById(bookInfo);
+            }
+            updateCount += firstChapterIdMap.size();
+            maxId = bookIds.get(bookIds.size() - 1);
+        }
+        log.info("小说首章ID回填完成，共回填 {} 本小说", updateCount);
+    }
+
+}
@@ -0,0 +1,248 @@
+package io.github.xxyopen.novel.core.task;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.manager.cache.BookVisitCountCacheManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * 小说点击榜任务
+ * <p>
+ * 1. 初始化：把所有小说的点击量加载到 Redis 点击榜（ZSET），之后所有点击量都先累加到点击榜中
+ * <p>
+ * 2. 持久化：点击榜中分数变化的小说会被记录，定时只把这些小说的分数（点击量总数）批量写回数据库
+ * <p>
+ * 3. 汇总：定时把每小时/每天的点击量桶汇总为日、周、月点击榜
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/8
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookVisitRankTask {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INIT_LOCK_KEY = "Lock::visitRankInit";
+
+    private static final String PERSIST_LOCK_KEY = "Lock::visitRankPersist";
+
+    private static final String ROLLUP_LOCK_KEY = "Lock::visitRankRollup";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final RedissonClient redissonClient;
+
+    /**
+     * 每分钟检查一次点击榜是否已初始化（首次部署或 Redis 数据丢失时需要初始化）
+     */
+    @Scheduled(fixedDelay = 60 * 1000, initialDelay = 10 * 1000)
+    public void initVisitRank() {
+        if (isVisitRankReady()) {
+            return;
+        }
+        RLock lock = redissonClient.getLock(INIT_LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (isVisitRankReady()) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            recordExistingScoreDelta();
+            long total = loadAllBooks();
+            redisTemplate.opsForValue().set(CacheConsts.BOOK_VISIT_RANK_INIT_KEY, "1");
+            log.info("小说点击榜初始化完成，共 {} 本小说，耗时 {} ms", total,
+                System.currentTimeMillis() - start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 每 5 分钟把点击量增量批量写回数据库
+     */
+    @Scheduled(cron = "0 */5 * * * ?")
+    public void persistVisitCount() {
+        RLock lock = redissonClient.getLock(PERSIST_LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            // 上次持久化中断时遗留的小说直接继续处理，否则取走当前所有分数变化的小说
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(CacheConsts.BOOK_VISIT_PERSISTING_KEY))) {
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(CacheConsts.BOOK_VISIT_DIRTY_KEY))) {
+                    return;
+                }
+                redisTemplate.rename(CacheConsts.BOOK_VISIT_DIRTY_KEY,
+                    CacheConsts.BOOK_VISIT_PERSISTING_KEY);
+            }
+            List<String> bookIds = redisTemplate.opsForHash()
+                .keys(CacheConsts.BOOK_VISIT_PERSISTING_KEY).stream().map(Object::toString)
+                .toList();
+            for (int i = 0; i < bookIds.size(); i += BATCH_SIZE) {
+                persistBatch(bookIds.subList(i, Math.min(i + BATCH_SIZE, bookIds.size())));
+            }
+            // 所有批次都写入数据库后才删除，中断后重新执行只会重复写入相同的点击量
+            redisTemplate.delete(CacheConsts.BOOK_VISIT_PERSISTING_KEY);
+            log.info("小说点击量持久化完成，共 {} 本小说", bookIds.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 每 5 分钟把点击量桶汇总为日（最近 24 小时）、周（最近 7 天）、月（最近 30 天）点击榜
+     */
+    @Scheduled(cron = "30 */5 * * * ?")
+    public void rollupPeriodVisitRank() {
+        RLock lock = redissonClient.getLock(ROLLUP_LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            unionAndStore(IntStream.range(0, 24)
+                    .mapToObj(i -> BookVisitCountCacheManager.getHourBucketKey(now.minusHours(i)))
+                    .toList(), CacheConsts.BOOK_DAY_VISIT_RANK_KEY);
+            LocalDate today = now.toLocalDate();
+            unionAndStore(IntStream.range(0, 7)
+                    .mapToObj(i -> BookVisitCountCacheManager.getDayBucketKey(today.minusDays(i)))
+                    .toList(), CacheConsts.BOOK_WEEK_VISIT_RANK_KEY);
+            unionAndStore(IntStream.range(0, 30)
+                    .mapToObj(i -> BookVisitCountCacheManager.getDayBucketKey(today.minusDays(i)))
+                    .toList(), CacheConsts.BOOK_MONTH_VISIT_RANK_KEY);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * ZUNIONSTORE 多个点击量桶到目标点击榜，不存在的桶按空集合处理
+     */
+    private void unionAndStore(List<String> bucketKeys, String rankKey) {
+        redisTemplate.opsForZSet()
+            .unionAndStore(bucketKeys.get(0), bucketKeys.subList(1, bucketKeys.size()), rankKey);
+    }
+
+    private boolean isVisitRankReady() {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(CacheConsts.BOOK_VISIT_RANK_INIT_KEY));
+    }
+
+    /**
+     * 初始化前点击榜中已存在的小说（旧版本只保存前 30 名）分数可能领先数据库，把差值记为待持久化的增量
+     */
+    private void recordExistingScoreDelta() {
+        Set<ZSetOperations.TypedTuple<String>> existing = redisTemplate.opsForZSet()
+            .rangeWithScores(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, 0, -1);
+        if (CollectionUtils.isEmpty(existing)) {
+            return;
+        }
+        Map<Long, Long> scoreMap = new HashMap<>(existing.size());
+        for (ZSetOperations.TypedTuple<String> tuple : existing) {
+            if (tuple.getValue() != null && tuple.getScore() != null) {
+                scoreMap.put(Long.valueOf(tuple.getValue()), tuple.getScore().longValue());
+            }
+        }
+        List<Long> bookIds = new ArrayList<>(scoreMap.keySet());
+        for (int i = 0; i < bookIds.size(); i += BATCH_SIZE) {
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                    DatabaseConsts.BookTable.COLUMN_VISIT_COUNT)
+                .in(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                    bookIds.subList(i, Math.min(i + BATCH_SIZE, bookIds.size())));
+            for (BookInfo bookInfo : bookInfoMapper.selectList(queryWrapper)) {
+                long delta = scoreMap.get(bookInfo.getId()) - bookInfo.getVisitCount();
+                if (delta > 0) {
+                    redisTemplate.opsForHash().increment(CacheConsts.BOOK_VISIT_DIRTY_KEY,
+                        String.valueOf(bookInfo.getId()), delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按主键分批把所有小说的点击量加载到点击榜，已存在的小说保留点击榜中的分数
+     *
+     * @return 加载的小说数
+     */
+    private long loadAllBooks() {
+        long maxId = 0L;
+        long total = 0L;
+        while (true) {
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                    DatabaseConsts.BookTable.COLUMN_VISIT_COUNT)
+                .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0)
+                .gt(DatabaseConsts.CommonColumnEnum.ID.getName(), maxId)
+                .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+            List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+            if (bookInfos.isEmpty()) {
+                return total;
+            }
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (BookInfo bookInfo : bookInfos) {
+                    conn.zAdd(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, bookInfo.getVisitCount(),
+                        String.valueOf(bookInfo.getId()), ZAddArgs.ifNotExists());
+                }
+                return null;
+            });
+            total += bookInfos.size();
+            maxId = bookInfos.get(bookInfos.size() - 1).getId();
+        }
+    }
+
+    /**
+     * 把一批小说在点击榜中的分数写回数据库
+     * <p>
+     * 写入的是点击量总数而不是增量，写入数据库后、删除待持久化记录前中断时，重新执行不会重复累加
+     */
+    private void persistBatch(List<String> bookIds) {
+        List<Object> scores = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String bookId : bookIds) {
+                conn.zScore(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, bookId);
+            }
+            return null;
+        });
+        Map<Long, Long> visitCounts = new LinkedHashMap<>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            if (scores.get(i) instanceof Double score) {
+                visitCounts.put(Long.valueOf(bookIds.get(i)), score.longValue());
+            }
+        }
+        if (!visitCounts.isEmpty()) {
+            bookInfoMapper.updateVisitCounts(visitCounts);
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package io.github.xxyopen.novel.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * <p>
+ * 小说信息改变消息发件箱
+ * </p>
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/12
+ */
+@TableName("book_change_outbox")
+public class BookChangeOutbox implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 小说ID
+     */
+    private Long bookId;
+
+    /**
+     * 章节ID，小说信息改变（非章节发布）时为空
+     */
+    private Long chapterId;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public Long getChapterId() {
+        return chapterId;
+    }
+
+    public void setChapterId(Long chapterId) {
+        this.chapterId = chapterId;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(LocalDateTime createTime) {
+        this.createTime = createTime;
+    }
+
+    @Override
+    public String toString() {
+        return "BookChangeOutbox{" +
+        "id=" + id +
+        ", bookId=" + bookId +
+        ", chapterId=" + chapterId +
+        ", createTime=" + createTime +
+        "}";
+    }
+}
@@ -91,6 +91,11 @@ public class BookInfo implements Serializable {
      */
     private Integer commentCount;
 
+    /**
+     * 首章节ID
+     */
+    private Long firstChapterId;
+
     /**
      * 最新章节ID
      */
@@ -234,6 +239,14 @@ public class BookInfo implements Serializable {
         this.commentCount = commentCount;
     }
 
+    public Long getFirstChapterId() {
+        return firstChapterId;
+    }
+
+    public void setFirstChapterId(Long firstChapterId) {
+        this.firstChapterId = firstChapterId;
+    }
+
     public Long getLastChapterId() {
         return lastChapterId;
     }
@@ -299,6 +312,7 @@ public class BookInfo implements Serializable {
         ", visitCount=" + visitCount +
         ", wordCount=" + wordCount +
         ", commentCount=" + commentCount +
+        ", firstChapterId=" + firstChapterId +
         ", lastChapterId=" + lastChapterId +
         ", lastChapterName=" + lastChapterName +
         ", lastChapterUpdateTime=" + lastChapterUpdateTime +
@@ -0,0 +1,16 @@
+package io.github.xxyopen.novel.dao.mapper;
+
+import io.github.xxyopen.novel.dao.entity.BookChangeOutbox;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+/**
+ * <p>
+ * 小说信息改变消息发件箱 Mapper 接口
+ * </p>
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/12
+ */
+public interface BookChangeOutboxMapper extends BaseMapper<BookChangeOutbox> {
+
+}
@@ -1,13 +1,13 @@
 package io.github.xxyopen.novel.dao.mapper;
 
-import com.baomidou.mybatisplus.core.metadata.IPage;
 import io.github.xxyopen.novel.dao.entity.BookInfo;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
-import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -27,11 +27,41 @@ public interface BookInfoMapper extends BaseMapper<BookInfo> {
     void addVisitCount(@Param("bookId") Long bookId);
 
     /**
-     * 小说搜索
-     * @param page mybatis-plus 分页对象
+     * 批量增加小说点击量
+     *
+     * @param visitCounts 小说ID -> 增加的点击量
+     */
+    void addVisitCounts(@Param("visitCounts") Map<Long, Long> visitCounts);
+
+    /**
+     * 批量设置小说点击量，只会增大不会减小，重复执行结果不变
+     *
+     * @param visitCounts 小说ID -> 点击量
+     */
+    void updateVisitCounts(@Param("visitCounts") Map<Long, Long> visitCounts);
+
+    /**
+     * 小说搜索，不使用 mybatis-plus 分页对象，避免分页插件每次都执行 count 查询
+     *
      * @param condition 搜索条件
+     * @param bookIds   包含关键词的小说ID（关键词已通过倒排索引解析），为 null 时按关键词模糊查询
+     * @param offset    偏移量
+     * @param size      查询条数
      * @return 返回结果
-     * */
-    List<BookInfo> searchBooks(IPage<BookInfoRespDto> page, BookSearchReqDto condition);
+     */
+    List<BookInfo> searchBooks(@Param("condition") BookSearchReqDto condition,
+        @Param("bookIds") Collection<Long> bookIds, @Param("offset") long offset,
+        @Param("size") int size);
+
+    /**
+     * 统计小说搜索结果数量，最多统计到 limit 条
+     *
+     * @param condition 搜索条件
+     * @param bookIds   包含关键词的小说ID，为 null 时按关键词模糊查询
+     * @param limit     最多统计的条数
+     * @return 搜索结果数量，不超过 limit
+     */
+    long countBooks(@Param("condition") BookSearchReqDto condition,
+        @Param("bookIds") Collection<Long> bookIds, @Param("limit") int limit);
 
 }
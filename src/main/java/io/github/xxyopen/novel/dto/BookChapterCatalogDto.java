@@ -0,0 +1,76 @@
+package io.github.xxyopen.novel.dto;
+
+import io.github.xxyopen.novel.dto.resp.BookChapterRespDto;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 小说章节目录 DTO
+ * <p>
+ * 按章节号升序，用平行数组保存章节ID、章节名和是否收费，避免为长篇小说的每个章节创建一个对象
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/7
+ */
+public class BookChapterCatalogDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long[] chapterIds;
+
+    private final String[] chapterNames;
+
+    /**
+     * 是否收费;1-收费 0-免费
+     */
+    private final byte[] isVips;
+
+    public BookChapterCatalogDto(long[] chapterIds, String[] chapterNames, byte[] isVips) {
+        if (chapterIds.length != chapterNames.length || chapterIds.length != isVips.length) {
+            throw new IllegalArgumentException("catalog arrays length mismatch");
+        }
+        this.chapterIds = chapterIds;
+        this.chapterNames = chapterNames;
+        this.isVips = isVips;
+    }
+
+    /**
+     * 章节总数
+     */
+    public int size() {
+        return chapterIds.length;
+    }
+
+    public long getChapterId(int index) {
+        return chapterIds[index];
+    }
+
+    public String getChapterName(int index) {
+        return chapterNames[index];
+    }
+
+    public int getIsVip(int index) {
+        return isVips[index];
+    }
+
+    /**
+     * 截取目录中 [from, from + size) 范围内的章节，超出目录的部分忽略
+     */
+    public List<BookChapterRespDto> range(int from, int size) {
+        int start = Math.max(from, 0);
+        int end = (int) Math.min((long) start + Math.max(size, 0), chapterIds.length);
+        List<BookChapterRespDto> chapters = new ArrayList<>(Math.max(end - start, 0));
+        for (int i = start; i < end; i++) {
+            chapters.add(BookChapterRespDto.builder()
+                .id(chapterIds[i])
+                .chapterName(chapterNames[i])
+                .isVip((int) isVips[i])
+                .build());
+        }
+        return chapters;
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.github.xxyopen.novel.dto;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 小说章节目录索引 DTO
+ * <p>
+ * 按章节号升序保存小说的全部章节ID和章节号，上一章、下一章等导航查询直接在内存中完成
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/7
+ */
+public class BookChapterIndexDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 章节ID，按章节号升序
+     */
+    private final long[] chapterIds;
+
+    /**
+     * 章节号，与 chapterIds 一一对应
+     */
+    private final int[] chapterNums;
+
+    public BookChapterIndexDto(long[] chapterIds, int[] chapterNums) {
+        if (chapterIds.length != chapterNums.length) {
+            throw new IllegalArgumentException("chapterIds and chapterNums length mismatch");
+        }
+        this.chapterIds = chapterIds;
+        this.chapterNums = chapterNums;
+    }
+
+    /**
+     * 章节总数
+     */
+    public int size() {
+        return chapterIds.length;
+    }
+
+    /**
+     * 第一章ID，没有章节时返回 null
+     */
+    public Long getFirstChapterId() {
+        return getChapterIdAt(0);
+    }
+
+    /**
+     * 最新章节ID，没有章节时返回 null
+     */
+    public Long getLastChapterId() {
+        return getChapterIdAt(chapterIds.length - 1);
+    }
+
+    /**
+     * 按目录中的位置（从 0 开始）查询章节ID，越界时返回 null
+     */
+    public Long getChapterIdAt(int index) {
+        if (index < 0 || index >= chapterIds.length) {
+            return null;
+        }
+        return chapterIds[index];
+    }
+
+    /**
+     * 按章节号查询章节ID，不存在时返回 null
+     */
+    public Long getChapterIdByNum(int chapterNum) {
+        int index = Arrays.binarySearch(chapterNums, chapterNum);
+        return index >= 0 ? chapterIds[index] : null;
+    }
+
+    /**
+     * 查询指定章节号的上一章ID，没有上一章时返回 null
+     */
+    public Long getPreChapterId(int chapterNum) {
+        int index = Arrays.binarySearch(chapterNums, chapterNum);
+        // 未找到时 binarySearch 返回 -(插入点) - 1，插入点左侧即为上一章
+        int preIndex = index >= 0 ? index - 1 : -index - 2;
+        return getChapterIdAt(preIndex);
+    }
+
+    /**
+     * 查询指定章节号的下一章ID，没有下一章时返回 null
+     */
+    public Long getNextChapterId(int chapterNum) {
+        int index = Arrays.binarySearch(chapterNums, chapterNum);
+        int nextIndex = index >= 0 ? index + 1 : -index - 1;
+        return getChapterIdAt(nextIndex);
+    }
+
+}
@@ -0,0 +1,30 @@
+package io.github.xxyopen.novel.dto.mq;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 小说信息改变消息 DTO
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/12
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookChangeMsgDto {
+
+    /**
+     * 小说ID
+     */
+    private Long bookId;
+
+    /**
+     * 章节ID，小说信息改变（非章节发布）时为空
+     */
+    private Long chapterId;
+
+}
@@ -75,4 +75,25 @@ public class BookSearchReqDto extends PageReqDto {
      */
     @Parameter(description = "排序字段")
     private String sort;
+
+    /**
+     * 分页游标，不为 null 时使用游标分页（仅 Elasticsearch 搜索支持）：
+     * 第一页传空字符串，之后传上一页返回的 nextCursor，此时 pageNum 只用于回显，pageSize 不能为 0
+     */
+    @Parameter(description = "分页游标，第一页传空字符串，之后传上一页返回的 nextCursor")
+    private String cursor;
+
+    /**
+     * 是否查询总数，默认查询（仅数据库搜索支持不查询）：
+     * 为 false 时不统计总数，多查一条数据判断是否有下一页，通过返回的 hasNext 翻页
+     */
+    @Parameter(description = "是否查询总数，为 false 时不统计总数，通过返回的 hasNext 判断是否有下一页")
+    private boolean searchCount = true;
+
+    /**
+     * 是否返回分面统计（分类、更新状态、是否收费、字数区间的小说数量，仅 Elasticsearch 搜索支持）：
+     * pageSize 为 0 时只返回分面统计
+     */
+    @Parameter(description = "是否返回分面统计，pageSize 为 0 时只返回分面统计")
+    private boolean facet;
 }
@@ -0,0 +1,53 @@
+package io.github.xxyopen.novel.dto.resp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 小说搜索分面统计项 响应DTO
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/16
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSearchFacetRespDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 分组值：分类ID、更新状态、是否收费的取值，字数为区间名
+     */
+    @Schema(description = "分组值：分类ID、更新状态、是否收费的取值，字数为区间名")
+    private String key;
+
+    /**
+     * 字数区间下限（包含），对应搜索条件 wordCountMin
+     */
+    @Schema(description = "字数区间下限（包含），对应搜索条件 wordCountMin")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer from;
+
+    /**
+     * 字数区间上限（不包含），对应搜索条件 wordCountMax
+     */
+    @Schema(description = "字数区间上限（不包含），对应搜索条件 wordCountMax")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer to;
+
+    /**
+     * 小说数量
+     */
+    @Schema(description = "小说数量")
+    private Long count;
+
+}
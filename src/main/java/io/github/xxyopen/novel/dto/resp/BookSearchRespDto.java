@@ -0,0 +1,35 @@
+package io.github.xxyopen.novel.dto.resp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.xxyopen.novel.core.common.resp.PageRespDto;
+import java.io.Serial;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * 小说搜索 响应DTO，在分页结果的基础上返回分面统计
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/16
+ */
+@Getter
+public class BookSearchRespDto extends PageRespDto<BookInfoRespDto> {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 分面统计：统计字段（categoryId、bookStatus、isVip、wordCount）-> 各分组的小说数量，
+     * 每个字段的统计不受该字段自身过滤条件的影响
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Map<String, List<BookSearchFacetRespDto>> facets;
+
+    public BookSearchRespDto(long pageNum, long pageSize, long total,
+        List<BookInfoRespDto> list, Map<String, List<BookSearchFacetRespDto>> facets) {
+        super(pageNum, pageSize, total, list);
+        this.facets = facets;
+    }
+
+}
@@ -5,7 +5,6 @@ import io.github.xxyopen.novel.dao.entity.BookChapter;
 import io.github.xxyopen.novel.dao.mapper.BookChapterMapper;
 import io.github.xxyopen.novel.dto.resp.BookChapterRespDto;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
@@ -24,7 +23,7 @@ public class BookChapterCacheManager {
     /**
      * 查询小说章节信息，并放入缓存中
      */
-    @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
+    @Cacheable(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
         value = CacheConsts.BOOK_CHAPTER_CACHE_NAME)
     public BookChapterRespDto getChapter(Long chapterId) {
         BookChapter bookChapter = bookChapterMapper.selectById(chapterId);
@@ -37,11 +36,5 @@ public class BookChapterCacheManager {
             .chapterUpdateTime(bookChapter.getUpdateTime())
             .build();
     }
-    @CacheEvict(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.BOOK_CHAPTER_CACHE_NAME)
-    public void evictBookChapterCache() {
-        // 调用此方法自动清除小说信息的缓存
-    }
-
 
 }
@@ -0,0 +1,62 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookChapter;
+import io.github.xxyopen.novel.dao.mapper.BookChapterMapper;
+import io.github.xxyopen.novel.dto.BookChapterCatalogDto;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说章节目录 缓存管理类
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/7
+ */
+@Component
+@RequiredArgsConstructor
+public class BookChapterCatalogCacheManager {
+
+    private final BookChapterMapper bookChapterMapper;
+
+    /**
+     * 查询小说章节目录（只查询目录需要的列），并放入缓存中
+     */
+    @Cacheable(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_CHAPTER_CATALOG_CACHE_NAME, sync = true)
+    public BookChapterCatalogDto getChapterCatalog(Long bookId) {
+        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NAME,
+                DatabaseConsts.BookChapterTable.COLUMN_IS_VIP)
+            .eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId)
+            .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM);
+        List<BookChapter> bookChapters = bookChapterMapper.selectList(queryWrapper);
+        int size = bookChapters.size();
+        long[] chapterIds = new long[size];
+        String[] chapterNames = new String[size];
+        byte[] isVips = new byte[size];
+        for (int i = 0; i < size; i++) {
+            BookChapter bookChapter = bookChapters.get(i);
+            chapterIds[i] = bookChapter.getId();
+            chapterNames[i] = bookChapter.getChapterName();
+            isVips[i] = bookChapter.getIsVip() == null ? 0 : bookChapter.getIsVip().byteValue();
+        }
+        return new BookChapterCatalogDto(chapterIds, chapterNames, isVips);
+    }
+
+    /**
+     * 清除指定小说的章节目录缓存
+     */
+    @CacheEvict(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_CHAPTER_CATALOG_CACHE_NAME)
+    public void evictChapterCatalogCache(Long bookId) {
+        // 调用此方法自动清除小说章节目录的缓存
+    }
+
+}
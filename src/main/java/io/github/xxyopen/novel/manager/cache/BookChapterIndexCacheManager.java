@@ -0,0 +1,59 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookChapter;
+import io.github.xxyopen.novel.dao.mapper.BookChapterMapper;
+import io.github.xxyopen.novel.dto.BookChapterIndexDto;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说章节目录索引 缓存管理类
+ * <p>
+ * 小说章节表按章节ID分片，按小说ID查询章节会广播到所有分片表，所以每本小说只查询一次目录并缓存
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/7
+ */
+@Component
+@RequiredArgsConstructor
+public class BookChapterIndexCacheManager {
+
+    private final BookChapterMapper bookChapterMapper;
+
+    /**
+     * 查询小说章节目录索引，并放入缓存中
+     */
+    @Cacheable(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_CHAPTER_INDEX_CACHE_NAME, sync = true)
+    public BookChapterIndexDto getChapterIndex(Long bookId) {
+        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
+            .eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId)
+            .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM);
+        List<BookChapter> bookChapters = bookChapterMapper.selectList(queryWrapper);
+        long[] chapterIds = new long[bookChapters.size()];
+        int[] chapterNums = new int[bookChapters.size()];
+        for (int i = 0; i < bookChapters.size(); i++) {
+            chapterIds[i] = bookChapters.get(i).getId();
+            chapterNums[i] = bookChapters.get(i).getChapterNum();
+        }
+        return new BookChapterIndexDto(chapterIds, chapterNums);
+    }
+
+    /**
+     * 清除指定小说的章节目录索引缓存
+     */
+    @CacheEvict(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_CHAPTER_INDEX_CACHE_NAME)
+    public void evictChapterIndexCache(Long bookId) {
+        // 调用此方法自动清除小说章节目录索引的缓存
+    }
+
+}
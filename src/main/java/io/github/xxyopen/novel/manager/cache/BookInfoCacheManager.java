@@ -1,6 +1,8 @@
 package io.github.xxyopen.novel.manager.cache;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.cache.CacheReloadRegistry;
+import io.github.xxyopen.novel.core.cache.TwoLevelCacheManager;
 import io.github.xxyopen.novel.core.constant.CacheConsts;
 import io.github.xxyopen.novel.core.constant.DatabaseConsts;
 import io.github.xxyopen.novel.dao.entity.BookChapter;
@@ -8,12 +10,22 @@ import io.github.xxyopen.novel.dao.entity.BookInfo;
 import io.github.xxyopen.novel.dao.mapper.BookChapterMapper;
 import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
 import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
+import io.github.xxyopen.novel.manager.dao.BookDaoManager;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
 
 /**
  * 小说信息 缓存管理类
@@ -29,11 +41,32 @@ public class BookInfoCacheManager {
 
     private final BookChapterMapper bookChapterMapper;
 
+    private final BookDaoManager bookDaoManager;
+
+    private final TwoLevelCacheManager localRemoteCacheManager;
+
+    private final CacheReloadRegistry cacheReloadRegistry;
+
+    /**
+     * 注册小说信息本地缓存的后台刷新函数
+     * <p>
+     * 通过 this 调用不会经过代理，@CachePut 不生效，因此显式写入两级缓存，同时更新远程缓存和其他节点
+     */
+    @PostConstruct
+    public void registerReloader() {
+        cacheReloadRegistry.register(CacheConsts.BOOK_INFO_CACHE_NAME, key -> {
+            BookInfoRespDto bookInfo = loadBookInfo((Long) key);
+            Objects.requireNonNull(localRemoteCacheManager.getCache(
+                CacheConsts.BOOK_INFO_CACHE_NAME)).put(key, bookInfo);
+            return bookInfo;
+        });
+    }
+
     /**
      * 从缓存中查询小说信息（先判断缓存中是否已存在，存在则直接从缓存中取，否则执行方法体中的逻辑后缓存结果）
      */
-    @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.BOOK_INFO_CACHE_NAME)
+    @Cacheable(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_INFO_CACHE_NAME, sync = true)
     public BookInfoRespDto getBookInfo(Long id) {
         return cachePutBookInfo(id);
     }
@@ -41,19 +74,78 @@ public class BookInfoCacheManager {
     /**
      * 缓存小说信息（不管缓存中是否存在都执行方法体中的逻辑，然后缓存起来）
      */
-    @CachePut(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
+    @CachePut(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
         value = CacheConsts.BOOK_INFO_CACHE_NAME)
     public BookInfoRespDto cachePutBookInfo(Long id) {
+        return loadBookInfo(id);
+    }
+
+    /**
+     * 从数据库加载小说信息
+     */
+    private BookInfoRespDto loadBookInfo(Long id) {
         // 查询基础信息
         BookInfo bookInfo = bookInfoMapper.selectById(id);
-        // 查询首章ID
-        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
-        queryWrapper
-            .eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, id)
-            .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
-            .last(DatabaseConsts.SqlEnum.LIMIT_1.getSql());
-        BookChapter firstBookChapter = bookChapterMapper.selectOne(queryWrapper);
+        // 首章ID已冗余在小说表中，未回填的旧数据再去章节表查询
+        Long firstChapterId = bookInfo.getFirstChapterId();
+        if (firstChapterId == null) {
+            QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
+            queryWrapper
+                .eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, id)
+                .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
+                .last(DatabaseConsts.SqlEnum.LIMIT_1.getSql());
+            firstChapterId = bookChapterMapper.selectOne(queryWrapper).getId();
+        }
         // 组装响应对象
+        return buildBookInfoRespDto(bookInfo, firstChapterId);
+    }
+
+    /**
+     * 批量查询小说信息，先从缓存中取，未命中的小说通过一次批量查询加载后放入缓存
+     *
+     * @param ids 小说ID集合
+     * @return 小说信息列表，顺序与传入的ID顺序一致，不存在或没有章节的小说会被忽略
+     */
+    public List<BookInfoRespDto> getBookInfos(Collection<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return Collections.emptyList();
+        }
+        Cache cache = Objects.requireNonNull(
+            localRemoteCacheManager.getCache(CacheConsts.BOOK_INFO_CACHE_NAME));
+        Map<Long, BookInfoRespDto> bookInfoMap = new HashMap<>(ids.size());
+        List<Long> missIds = new ArrayList<>();
+        for (Long id : ids) {
+            BookInfoRespDto bookInfo = cache.get(id, BookInfoRespDto.class);
+            if (bookInfo != null) {
+                bookInfoMap.put(id, bookInfo);
+            } else {
+                missIds.add(id);
+            }
+        }
+        if (!missIds.isEmpty()) {
+            List<BookInfo> bookInfos = bookInfoMapper.selectBatchIds(missIds);
+            // 只有首章ID未回填的小说才需要查询章节表
+            Map<Long, Long> firstChapterIdMap = bookDaoManager.listFirstChapterIds(
+                bookInfos.stream()
+                    .filter(v -> v.getFirstChapterId() == null)
+                    .map(BookInfo::getId)
+                    .toList());
+            for (BookInfo bookInfo : bookInfos) {
+                Long firstChapterId = bookInfo.getFirstChapterId() != null
+                    ? bookInfo.getFirstChapterId() : firstChapterIdMap.get(bookInfo.getId());
+                if (firstChapterId == null) {
+                    // 没有章节的小说无法阅读，在列表中直接跳过且不缓存（单个查询对这类小说会因找不到首章而失败）
+                    continue;
+                }
+                BookInfoRespDto respDto = buildBookInfoRespDto(bookInfo, firstChapterId);
+                cache.put(bookInfo.getId(), respDto);
+                bookInfoMap.put(bookInfo.getId(), respDto);
+            }
+        }
+        return ids.stream().map(bookInfoMap::get).filter(Objects::nonNull).toList();
+    }
+
+    private BookInfoRespDto buildBookInfoRespDto(BookInfo bookInfo, Long firstChapterId) {
         return BookInfoRespDto.builder()
             .id(bookInfo.getId())
             .bookName(bookInfo.getBookName())
@@ -64,7 +156,7 @@ public class BookInfoCacheManager {
             .categoryId(bookInfo.getCategoryId())
             .categoryName(bookInfo.getCategoryName())
             .commentCount(bookInfo.getCommentCount())
-            .firstChapterId(firstBookChapter.getId())
+            .firstChapterId(firstChapterId)
             .lastChapterId(bookInfo.getLastChapterId())
             .picUrl(bookInfo.getPicUrl())
             .visitCount(bookInfo.getVisitCount())
@@ -72,9 +164,12 @@ public class BookInfoCacheManager {
             .build();
     }
 
-    @CacheEvict(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
+    /**
+     * 清除指定小说的信息缓存
+     */
+    @CacheEvict(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
         value = CacheConsts.BOOK_INFO_CACHE_NAME)
-    public void evictBookInfoCache() {
+    public void evictBookInfoCache(Long bookId) {
         // 调用此方法自动清除小说信息的缓存
     }
 
@@ -1,23 +1,34 @@
 package io.github.xxyopen.novel.manager.cache;
 
-import com.alibaba.fastjson.JSONObject;
-import com.alibaba.fastjson.TypeReference;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
-import io.github.xxyopen.novel.core.annotation.Lock;
+import io.github.xxyopen.novel.core.annotation.SingleFlight;
+import io.github.xxyopen.novel.core.cache.CacheReloadRegistry;
+import io.github.xxyopen.novel.core.cache.TwoLevelCacheManager;
 import io.github.xxyopen.novel.core.constant.CacheConsts;
 import io.github.xxyopen.novel.core.constant.DatabaseConsts;
 import io.github.xxyopen.novel.dao.entity.BookInfo;
 import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
 import io.github.xxyopen.novel.dto.resp.BookRankRespDto;
 
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.dao.DataAccessException;
-import org.springframework.data.redis.core.*;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
@@ -31,109 +42,266 @@ import org.springframework.stereotype.Component;
 public class BookRankCacheManager {
 
     private final BookInfoMapper bookInfoMapper;
-    private final RedisTemplate<String,String> redisTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final TwoLevelCacheManager localRemoteCacheManager;
+    private final CacheReloadRegistry cacheReloadRegistry;
+
     /**
-     * 查询小说点击榜列表，并放入缓存中
+     * 新书榜和更新榜的小说数
      */
-//    @Cacheable(cacheManager = CacheConsts.REDIS_CACHE_MANAGER,
-//        value = CacheConsts.BOOK_VISIT_RANK_CACHE_NAME)
-    @Lock(prefix = "visit_rank")
-    public List<BookRankRespDto> listVisitRankBooks() {
+    private static final int RANK_SIZE = 30;
 
-        Set<ZSetOperations.TypedTuple<String>> rankData = redisTemplate.opsForZSet().reverseRangeWithScores(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, 0, 29);
-        if (CollectionUtils.isEmpty(rankData)) {
-            // 如果 Redis 中没有排行榜数据，则从数据库中查询
-            QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
-            bookInfoQueryWrapper
-                .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0)
-                .orderByDesc(DatabaseConsts.BookTable.COLUMN_VISIT_COUNT)
-                .last(DatabaseConsts.SqlEnum.LIMIT_30.getSql());
-            List<BookInfo> bookInfoList = bookInfoMapper.selectList(bookInfoQueryWrapper);
-            if (CollectionUtils.isEmpty(bookInfoList)) {
-                return Collections.emptyList();
-            }
-            // 将排行榜数据存入 Redis
-            Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
-            for (int i = 0; i < bookInfoList.size(); i++) {
-                BookInfo bookInfo = bookInfoList.get(i);
-                ZSetOperations.TypedTuple<String> tuple = new DefaultTypedTuple<>(
-                    String.valueOf(bookInfo.getId()),
-                    Double.valueOf(bookInfo.getVisitCount())
-                );
-                tuples.add(tuple);
-            }
-            redisTemplate.opsForZSet().add(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, tuples);
-            rankData = redisTemplate.opsForZSet().reverseRangeWithScores(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, 0, 29);
+    /**
+     * 无参数方法的缓存 KEY
+     */
+    private static final String EMPTY_KEY = "T(org.springframework.cache.interceptor.SimpleKey).EMPTY";
+
+    /**
+     * 点击榜快照的最长有效时间，超过后即使排名不变也重新生成，以更新小说信息
+     */
+    private static final long VISIT_RANK_SNAPSHOT_TTL = 10 * 60 * 1000L;
+
+    /**
+     * 点击榜快照
+     */
+    private final AtomicReference<VisitRankSnapshot> visitRankSnapshot = new AtomicReference<>();
+
+    /**
+     * 注册新书榜和更新榜本地缓存的后台刷新函数
+     * <p>
+     * 通过 this 调用不会经过代理，因此直接加载榜单并显式写入两级缓存，同时更新远程缓存和其他节点
+     */
+    @PostConstruct
+    public void registerReloader() {
+        registerReloader(CacheConsts.BOOK_NEWEST_RANK_CACHE_NAME, this::loadNewestRankBooks);
+        registerReloader(CacheConsts.BOOK_UPDATE_RANK_CACHE_NAME, this::loadUpdateRankBooks);
+    }
+
+    private void registerReloader(String cacheName, Supplier<List<BookRankRespDto>> loader) {
+        cacheReloadRegistry.register(cacheName, key -> {
+            List<BookRankRespDto> books = loader.get();
+            Objects.requireNonNull(localRemoteCacheManager.getCache(cacheName)).put(key, books);
+            return books;
+        });
+    }
+
+    /**
+     * 查询小说点击榜列表，直接返回本地快照，不加锁也不查询数据库
+     */
+    public List<BookRankRespDto> listVisitRankBooks() {
+        VisitRankSnapshot snapshot = visitRankSnapshot.get();
+        if (snapshot == null) {
+            // 应用刚启动，快照还未生成
+            refreshVisitRankSnapshot();
+            snapshot = visitRankSnapshot.get();
         }
-        // 将排行榜数据转化为 DTO
-        List<BookRankRespDto> result = new ArrayList<>();
-        for (ZSetOperations.TypedTuple<String> tuple : rankData) {
-            BookInfo bookInfo = bookInfoMapper.selectById(Long.valueOf(tuple.getValue()));
-            if (bookInfo != null) {
-                BookRankRespDto respDto = new BookRankRespDto();
-                respDto.setId(bookInfo.getId());
-                respDto.setCategoryId(bookInfo.getCategoryId());
-                respDto.setCategoryName(bookInfo.getCategoryName());
-                respDto.setBookName(bookInfo.getBookName());
-                respDto.setAuthorName(bookInfo.getAuthorName());
-                respDto.setPicUrl(bookInfo.getPicUrl());
-                respDto.setBookDesc(bookInfo.getBookDesc());
-                respDto.setLastChapterName(bookInfo.getLastChapterName());
-                respDto.setLastChapterUpdateTime(bookInfo.getUpdateTime());
-                respDto.setWordCount(bookInfo.getWordCount());
-                result.add(respDto);
-            }
+        return snapshot.books();
+    }
+
+    /**
+     * 定时检查点击榜前 30 名，排名变化或快照过期时重新生成快照
+     */
+    @Scheduled(fixedDelay = 5 * 1000)
+    public synchronized void refreshVisitRankSnapshot() {
+        List<Long> bookIds = listVisitRankBookIds();
+        VisitRankSnapshot snapshot = visitRankSnapshot.get();
+        if (snapshot != null && snapshot.bookIds().equals(bookIds)
+            && System.currentTimeMillis() - snapshot.buildTime() < VISIT_RANK_SNAPSHOT_TTL) {
+            return;
         }
-        return result;
-    
+        List<BookRankRespDto> books = listRankBooks(bookIds);
+        visitRankSnapshot.set(new VisitRankSnapshot(bookIds, books, System.currentTimeMillis()));
     }
 
     /**
-     * 查询小说新书榜列表，并放入缓存中
+     * 查询点击榜前 30 名的小说ID，点击榜还未初始化时从数据库查询
      */
-    @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.BOOK_NEWEST_RANK_CACHE_NAME)
-    @Lock(prefix = "newest_rank")
-    public List<BookRankRespDto> listNewestRankBooks() {
+    private List<Long> listVisitRankBookIds() {
+        Set<String> rankData = redisTemplate.opsForZSet()
+            .reverseRange(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, 0, 29);
+        if (!CollectionUtils.isEmpty(rankData)) {
+            return rankData.stream().map(Long::valueOf).toList();
+        }
         QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
         bookInfoQueryWrapper
+            .select(DatabaseConsts.CommonColumnEnum.ID.getName())
             .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0)
-            .orderByDesc(DatabaseConsts.CommonColumnEnum.CREATE_TIME.getName());
-        return listRankBooks(bookInfoQueryWrapper);
+            .orderByDesc(DatabaseConsts.BookTable.COLUMN_VISIT_COUNT)
+            .last(DatabaseConsts.SqlEnum.LIMIT_30.getSql());
+        return bookInfoMapper.selectList(bookInfoQueryWrapper).stream()
+            .map(BookInfo::getId)
+            .toList();
     }
 
     /**
-     * 查询小说更新榜列表，并放入缓存中
+     * 查询小说日/周/月点击榜列表，并放入缓存中
+     *
+     * @param rankKey 点击榜 KEY，见 CacheConsts 中的 BOOK_DAY/WEEK/MONTH_VISIT_RANK_KEY
      */
     @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.BOOK_UPDATE_RANK_CACHE_NAME)
-    @Lock(prefix = "update_rank")
+        value = CacheConsts.BOOK_PERIOD_VISIT_RANK_CACHE_NAME, sync = true)
+    public List<BookRankRespDto> listPeriodVisitRankBooks(String rankKey) {
+        return listRankBooks(rankKey);
+    }
+
+    /**
+     * 查询小说新书榜列表，并放入缓存中
+     */
+    @Cacheable(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_NEWEST_RANK_CACHE_NAME, sync = true)
+    @SingleFlight(prefix = "newest_rank", distributed = true,
+        cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER, cacheName = CacheConsts.BOOK_NEWEST_RANK_CACHE_NAME)
+    public List<BookRankRespDto> listNewestRankBooks() {
+        return loadNewestRankBooks();
+    }
+
+    private List<BookRankRespDto> loadNewestRankBooks() {
+        initRankIfAbsent(CacheConsts.BOOK_NEWEST_RANK_KEY, CacheConsts.BOOK_NEWEST_RANK_INIT_KEY,
+            DatabaseConsts.CommonColumnEnum.CREATE_TIME.getName(), BookInfo::getCreateTime);
+        return listRankBooks(CacheConsts.BOOK_NEWEST_RANK_KEY);
+    }
+
+    /**
+     * 查询小说更新榜列表，并放入缓存中
+     */
+    @Cacheable(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_UPDATE_RANK_CACHE_NAME, sync = true)
+    @SingleFlight(prefix = "update_rank", distributed = true,
+        cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER, cacheName = CacheConsts.BOOK_UPDATE_RANK_CACHE_NAME)
     public List<BookRankRespDto> listUpdateRankBooks() {
-        QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
-        bookInfoQueryWrapper
-            .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0)
-            .orderByDesc(DatabaseConsts.CommonColumnEnum.UPDATE_TIME.getName());
-        return listRankBooks(bookInfoQueryWrapper);
+        return loadUpdateRankBooks();
+    }
+
+    private List<BookRankRespDto> loadUpdateRankBooks() {
+        initRankIfAbsent(CacheConsts.BOOK_UPDATE_RANK_KEY, CacheConsts.BOOK_UPDATE_RANK_INIT_KEY,
+            DatabaseConsts.CommonColumnEnum.UPDATE_TIME.getName(), BookInfo::getUpdateTime);
+        return listRankBooks(CacheConsts.BOOK_UPDATE_RANK_KEY);
     }
 
-    private List<BookRankRespDto> listRankBooks(QueryWrapper<BookInfo> bookInfoQueryWrapper) {
+    /**
+     * 清除新书榜和更新榜的缓存
+     * <p>
+     * 榜单查询方法没有参数，缓存中只有 SimpleKey.EMPTY 一个 KEY，直接按 KEY 清除，避免 allEntries 扫描 Redis。
+     * 需在事务中调用，两级缓存和远程缓存会把清除推迟到事务提交后；在 afterCommit 回调中调用时，
+     * 推迟注册的回调不会再被执行，缓存不会被清除
+     */
+    @Caching(evict = {
+        @CacheEvict(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
+            value = CacheConsts.BOOK_NEWEST_RANK_CACHE_NAME, key = EMPTY_KEY),
+        @CacheEvict(cacheManager = CacheConsts.LOCAL_REMOTE_CACHE_MANAGER,
+            value = CacheConsts.BOOK_UPDATE_RANK_CACHE_NAME, key = EMPTY_KEY)})
+    public void evictRankCache() {
+        // 调用此方法自动清除新书榜和更新榜的缓存
+    }
+
+    /**
+     * 小说章节发布后更新新书榜和更新榜
+     *
+     * @param bookId     小说ID
+     * @param createTime 小说创建时间
+     * @param updateTime 小说更新时间
+     */
+    public void updateRankBooks(Long bookId, LocalDateTime createTime, LocalDateTime updateTime) {
+        String member = String.valueOf(bookId);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            // 有章节的小说才能进入新书榜，发布章节时加入（已存在时分数不变）
+            conn.zAdd(CacheConsts.BOOK_NEWEST_RANK_KEY, toScore(createTime), member);
+            conn.zAdd(CacheConsts.BOOK_UPDATE_RANK_KEY, toScore(updateTime), member);
+            // 只保留前 RANK_SIZE 名
+            conn.zRemRange(CacheConsts.BOOK_NEWEST_RANK_KEY, 0, -RANK_SIZE - 1);
+            conn.zRemRange(CacheConsts.BOOK_UPDATE_RANK_KEY, 0, -RANK_SIZE - 1);
+            return null;
+        });
+    }
+
+    /**
+     * 榜单未初始化时（首次部署或 Redis 数据丢失）从数据库查询一次前 RANK_SIZE 名
+     * <p>
+     * 使用单独的初始化标记，而不是判断榜单是否存在：Redis 数据丢失后、首次查询榜单前发布章节，
+     * 榜单中只有新发布的小说，仍然需要从数据库初始化
+     */
+    private void initRankIfAbsent(String rankKey, String initKey, String orderColumn,
+        Function<BookInfo, LocalDateTime> scoreGetter) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(initKey))) {
+            return;
+        }
+        QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
         bookInfoQueryWrapper
+            .select(DatabaseConsts.CommonColumnEnum.ID.getName(), orderColumn)
             .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0)
+            .orderByDesc(orderColumn)
             .last(DatabaseConsts.SqlEnum.LIMIT_30.getSql());
-        return bookInfoMapper.selectList(bookInfoQueryWrapper).stream().map(v -> {
-            BookRankRespDto respDto = new BookRankRespDto();
-            respDto.setId(v.getId());
-            respDto.setCategoryId(v.getCategoryId());
-            respDto.setCategoryName(v.getCategoryName());
-            respDto.setBookName(v.getBookName());
-            respDto.setAuthorName(v.getAuthorName());
-            respDto.setPicUrl(v.getPicUrl());
-            respDto.setBookDesc(v.getBookDesc());
-            respDto.setLastChapterName(v.getLastChapterName());
-            respDto.setLastChapterUpdateTime(v.getUpdateTime());
-            respDto.setWordCount(v.getWordCount());
-            return respDto;
-        }).toList();
+        List<BookInfo> bookInfos = bookInfoMapper.selectList(bookInfoQueryWrapper);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            // 只添加不存在的小说，避免覆盖初始化期间发布章节写入的分数
+            for (BookInfo bookInfo : bookInfos) {
+                conn.zAdd(rankKey, toScore(scoreGetter.apply(bookInfo)),
+                    String.valueOf(bookInfo.getId()), ZAddArgs.ifNotExists());
+            }
+            conn.zRemRange(rankKey, 0, -RANK_SIZE - 1);
+            conn.set(initKey, "1");
+            return null;
+        });
+    }
+
+    /**
+     * 按榜单顺序查询前 RANK_SIZE 名小说，一次批量查询榜单中的所有小说
+     */
+    private List<BookRankRespDto> listRankBooks(String rankKey) {
+        Set<String> rankData = redisTemplate.opsForZSet().reverseRange(rankKey, 0, RANK_SIZE - 1);
+        if (CollectionUtils.isEmpty(rankData)) {
+            return Collections.emptyList();
+        }
+        return listRankBooks(rankData.stream().map(Long::valueOf).toList());
+    }
+
+    /**
+     * 按给定顺序组装榜单，一次批量查询榜单中的所有小说
+     */
+    private List<BookRankRespDto> listRankBooks(List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, BookInfo> bookInfoMap = bookInfoMapper.selectBatchIds(bookIds).stream()
+            .collect(Collectors.toMap(BookInfo::getId, Function.identity()));
+        return bookIds.stream()
+            .map(bookInfoMap::get)
+            .filter(Objects::nonNull)
+            .map(this::buildRankRespDto)
+            .toList();
+    }
+
+    private double toScore(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private BookRankRespDto buildRankRespDto(BookInfo bookInfo) {
+        BookRankRespDto respDto = new BookRankRespDto();
+        respDto.setId(bookInfo.getId());
+        respDto.setCategoryId(bookInfo.getCategoryId());
+        respDto.setCategoryName(bookInfo.getCategoryName());
+        respDto.setBookName(bookInfo.getBookName());
+        respDto.setAuthorName(bookInfo.getAuthorName());
+        respDto.setPicUrl(bookInfo.getPicUrl());
+        respDto.setBookDesc(bookInfo.getBookDesc());
+        respDto.setLastChapterName(bookInfo.getLastChapterName());
+        respDto.setLastChapterUpdateTime(bookInfo.getUpdateTime());
+        respDto.setWordCount(bookInfo.getWordCount());
+        return respDto;
+    }
+
+    /**
+     * 点击榜快照
+     *
+     * @param bookIds   点击榜中的小说ID，按排名顺序
+     * @param books     点击榜响应数据
+     * @param buildTime 生成时间
+     */
+    private record VisitRankSnapshot(List<Long> bookIds, List<BookRankRespDto> books,
+                                     long buildTime) {
+
     }
 
 }
@@ -0,0 +1,204 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import io.github.xxyopen.novel.core.annotation.Key;
+import io.github.xxyopen.novel.core.annotation.SingleFlight;
+import io.github.xxyopen.novel.core.cache.TwoLevelCacheManager;
+import io.github.xxyopen.novel.core.common.resp.PageRespDto;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
+import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.DigestUtils;
+
+/**
+ * 小说搜索结果 缓存管理类
+ * <p>
+ * 搜索条件规范化后取摘要作为缓存 key；有结果和空结果分别缓存在两个过期时间不同的两级缓存中；
+ * 同时记录每本小说出现在哪些搜索结果中，小说变更时清除相关的搜索结果缓存；
+ * 搜索结果数量与页码和排序无关，按规范化的过滤条件单独缓存在本地；
+ * 只按过滤条件统计的分面结果取值有限，单独较长时间缓存，过期前不随小说变更清除
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/10
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookSearchCacheManager {
+
+    /**
+     * 小说所在搜索结果索引的过期时间，需不短于搜索结果缓存的过期时间
+     */
+    private static final Duration SEARCH_INDEX_TTL = Duration.ofMinutes(10);
+
+    private final TwoLevelCacheManager localRemoteCacheManager;
+
+    private final CacheManager caffeineCacheManager;
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 查询搜索结果，缓存未命中时调用 loader 搜索并放入缓存中；同一节点上规范化条件相同的并发搜索只执行一次
+     */
+    @SingleFlight(prefix = "searchResult")
+    public PageRespDto<BookInfoRespDto> getSearchResult(
+        @Key(expr = "#{T(io.github.xxyopen.novel.manager.cache.BookSearchCacheManager).buildCacheKey(#root)}")
+        BookSearchReqDto condition, Supplier<PageRespDto<BookInfoRespDto>> loader) {
+        String key = buildCacheKey(condition);
+        Cache searchCache = getCache(CacheConsts.BOOK_SEARCH_CACHE_NAME);
+        Cache emptyCache = getCache(CacheConsts.BOOK_SEARCH_EMPTY_CACHE_NAME);
+        PageRespDto<BookInfoRespDto> result = getCacheValue(searchCache, key);
+        if (result == null) {
+            result = getCacheValue(emptyCache, key);
+        }
+        if (result != null) {
+            return result;
+        }
+        result = loader.get();
+        if (CollectionUtils.isEmpty(result.getList())) {
+            // 空结果只短时间缓存
+            emptyCache.put(key, result);
+            return result;
+        }
+        searchCache.put(key, result);
+        indexSearchResult(key, result);
+        return result;
+    }
+
+    /**
+     * 查询搜索结果数量，缓存未命中时调用 loader 统计并放入缓存中
+     */
+    public long getSearchCount(BookSearchReqDto condition, LongSupplier loader) {
+        String key = buildConditionDigest(condition);
+        Cache countCache = Objects.requireNonNull(
+            caffeineCacheManager.getCache(CacheConsts.BOOK_SEARCH_COUNT_CACHE_NAME));
+        Long count = countCache.get(key, Long.class);
+        if (count == null) {
+            count = loader.getAsLong();
+            countCache.put(key, count);
+        }
+        return count;
+    }
+
+    /**
+     * 查询只按过滤条件统计的分面结果，缓存未命中时调用 loader 统计并放入缓存中；同一节点上过滤条件相同的并发统计只执行一次
+     */
+    @SingleFlight(prefix = "searchFacets")
+    public PageRespDto<BookInfoRespDto> getSearchFacets(
+        @Key(expr = "#{T(io.github.xxyopen.novel.manager.cache.BookSearchCacheManager).buildConditionDigest(#root)}")
+        BookSearchReqDto condition, Supplier<PageRespDto<BookInfoRespDto>> loader) {
+        String key = buildConditionDigest(condition);
+        Cache facetCache = getCache(CacheConsts.BOOK_SEARCH_FACET_CACHE_NAME);
+        PageRespDto<BookInfoRespDto> result = getCacheValue(facetCache, key);
+        if (result == null) {
+            result = loader.get();
+            facetCache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * 清除包含指定小说的搜索结果缓存
+     */
+    public void evictSearchCache(Long bookId) {
+        String indexKey = CacheConsts.BOOK_SEARCH_INDEX_KEY_PREFIX + bookId;
+        Set<String> keys = redisTemplate.opsForSet().members(indexKey);
+        if (CollectionUtils.isEmpty(keys)) {
+            return;
+        }
+        Cache searchCache = getCache(CacheConsts.BOOK_SEARCH_CACHE_NAME);
+        keys.forEach(searchCache::evict);
+        redisTemplate.delete(indexKey);
+    }
+
+    /**
+     * 记录搜索结果中的小说所在的缓存 key
+     */
+    private void indexSearchResult(String key, PageRespDto<BookInfoRespDto> result) {
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (BookInfoRespDto book : result.getList()) {
+                    String indexKey = CacheConsts.BOOK_SEARCH_INDEX_KEY_PREFIX + book.getId();
+                    conn.sAdd(indexKey, key);
+                    conn.expire(indexKey, SEARCH_INDEX_TTL.toSeconds());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // 索引写入失败时，相关缓存只能等待过期
+            log.error("小说搜索结果索引写入失败，key:{}", key, e);
+        }
+    }
+
+    /**
+     * 构建搜索条件的规范化 key：关键词去除首尾空白、合并连续空白并转小写，各条件按固定顺序拼接后取 MD5
+     */
+    public static String buildCacheKey(BookSearchReqDto condition) {
+        StringJoiner joiner = new StringJoiner("|");
+        joiner.add(buildConditionKey(condition))
+            .add(normalize(condition.getSort()))
+            .add(String.valueOf(condition.getPageNum()))
+            .add(String.valueOf(condition.getPageSize()))
+            .add(String.valueOf(condition.isFacet()));
+        return DigestUtils.md5DigestAsHex(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 构建只包含关键词和过滤条件的规范化 key，不包含排序和分页
+     */
+    public static String buildConditionDigest(BookSearchReqDto condition) {
+        return DigestUtils.md5DigestAsHex(
+            buildConditionKey(condition).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 拼接规范化的关键词和过滤条件，不包含排序和分页
+     */
+    private static String buildConditionKey(BookSearchReqDto condition) {
+        StringJoiner joiner = new StringJoiner("|");
+        joiner.add(normalize(condition.getKeyword()))
+            .add(Objects.toString(condition.getWorkDirection(), ""))
+            .add(Objects.toString(condition.getCategoryId(), ""))
+            .add(Objects.toString(condition.getIsVip(), ""))
+            .add(Objects.toString(condition.getBookStatus(), ""))
+            .add(Objects.toString(condition.getWordCountMin(), ""))
+            .add(Objects.toString(condition.getWordCountMax(), ""))
+            .add(condition.getUpdateTimeMin() == null ? ""
+                : String.valueOf(condition.getUpdateTimeMin().getTime()));
+        return joiner.toString();
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PageRespDto<BookInfoRespDto> getCacheValue(Cache cache, String key) {
+        return cache.get(key, PageRespDto.class);
+    }
+
+    private Cache getCache(String name) {
+        return Objects.requireNonNull(localRemoteCacheManager.getCache(name));
+    }
+
+}
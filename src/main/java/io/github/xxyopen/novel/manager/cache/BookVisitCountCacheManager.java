@@ -0,0 +1,305 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说点击量 本地缓存管理类
+ * <p>
+ * 点击量先在本节点内存中累计，定时批量刷新：点击榜初始化完成后通过一次 Redis 管道批量 ZINCRBY
+ * 并记录增量（由 BookVisitRankTask 定时持久化），初始化完成前通过 case when 语句批量更新数据库
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/8
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookVisitCountCacheManager {
+
+    /**
+     * 每条批量更新语句最多包含的小说数
+     */
+    private static final int UPDATE_BATCH_SIZE = 500;
+
+    /**
+     * 每小时点击量桶的过期时间，需覆盖日点击榜的 24 小时窗口
+     */
+    private static final Duration HOUR_BUCKET_TTL = Duration.ofHours(26);
+
+    /**
+     * 每天点击量桶的过期时间，需覆盖月点击榜的 30 天窗口
+     */
+    private static final Duration DAY_BUCKET_TTL = Duration.ofDays(32);
+
+    private static final DateTimeFormatter HOUR_BUCKET_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    private static final DateTimeFormatter DAY_BUCKET_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final BookInfoMapper bookInfoMapper;
+
+    /**
+     * 小说ID -> 未刷新的点击量
+     */
+    private final Map<Long, LongAdder> visitCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 增加小说点击量（仅在本地累计）
+     */
+    public void addVisitCount(Long bookId) {
+        visitCounts.computeIfAbsent(bookId, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 定时将本地累计的点击量刷新到 Redis 和数据库
+     */
+    @Scheduled(fixedDelayString = "${novel.visit.flush-interval:1000}")
+    public void flush() {
+        Map<Long, Long> counts = drain();
+        if (counts.isEmpty()) {
+            return;
+        }
+        boolean rankReady;
+        try {
+            rankReady = Boolean.TRUE.equals(
+                redisTemplate.hasKey(CacheConsts.BOOK_VISIT_RANK_INIT_KEY));
+        } catch (Exception e) {
+            log.error("小说点击量刷新失败，本次共 {} 本小说", counts.size(), e);
+            restore(counts);
+            return;
+        }
+        if (rankReady) {
+            flushToRank(counts);
+        } else {
+            // 点击榜还未包含所有小说，直接批量更新数据库
+            flushToDb(counts);
+        }
+    }
+
+    /**
+     * 应用关闭前刷新剩余的点击量
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * 取出并清零本地累计的点击量
+     */
+    private Map<Long, Long> drain() {
+        Map<Long, Long> counts = new HashMap<>();
+        visitCounts.forEach((bookId, adder) -> {
+            long count = adder.sumThenReset();
+            if (count > 0) {
+                counts.put(bookId, count);
+            } else if (visitCounts.remove(bookId, adder)) {
+                // 移除空闲的累加器，移除前如果恰好有新的点击则放回
+                long leftover = adder.sum();
+                if (leftover > 0) {
+                    visitCounts.computeIfAbsent(bookId, k -> new LongAdder()).add(leftover);
+                }
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * 通过一次 Redis 管道增加点击榜分数，并记录待持久化到数据库的增量
+     * <p>
+     * 只处理点击榜中已有或数据库中存在的小说，不存在的小说ID直接丢弃，避免伪造的小说ID进入点击榜
+     */
+    private void flushToRank(Map<Long, Long> counts) {
+        Map<Long, Long> rankCounts;
+        try {
+            rankCounts = retainRankBooks(counts);
+            if (rankCounts.isEmpty()) {
+                return;
+            }
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                rankCounts.forEach((bookId, count) -> {
+                    String member = String.valueOf(bookId);
+                    conn.zIncrBy(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, count, member);
+                    conn.hIncrBy(CacheConsts.BOOK_VISIT_DIRTY_KEY, member, count);
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("小说点击量刷新到 Redis 失败，本次共 {} 本小说", counts.size(), e);
+            restore(counts);
+            return;
+        }
+        incrementVisitBuckets(rankCounts);
+    }
+
+    /**
+     * 保留点击榜中已有的小说，点击榜初始化之后才加入的小说（如新发布的小说）先以数据库中的点击量加入点击榜，
+     * 避免从 0 开始累加；点击榜和数据库中都不存在的小说被丢弃
+     * <p>
+     * 多个节点同时加入同一本小说时只有一个 ZADD NX 生效，之后的 ZINCRBY 都在该分数上累加
+     */
+    private Map<Long, Long> retainRankBooks(Map<Long, Long> counts) {
+        List<Long> ids = new ArrayList<>(counts.keySet());
+        List<Object> scores = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long bookId : ids) {
+                conn.zScore(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, String.valueOf(bookId));
+            }
+            return null;
+        });
+        Map<Long, Long> rankCounts = new HashMap<>();
+        List<Long> newBookIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (scores.get(i) == null) {
+                newBookIds.add(ids.get(i));
+            } else {
+                rankCounts.put(ids.get(i), counts.get(ids.get(i)));
+            }
+        }
+        if (newBookIds.isEmpty()) {
+            return rankCounts;
+        }
+        List<BookInfo> bookInfos = listBooks(newBookIds);
+        if (bookInfos.isEmpty()) {
+            return rankCounts;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (BookInfo bookInfo : bookInfos) {
+                conn.zAdd(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, bookInfo.getVisitCount(),
+                    String.valueOf(bookInfo.getId()), ZAddArgs.ifNotExists());
+            }
+            return null;
+        });
+        bookInfos.forEach(bookInfo -> rankCounts.put(bookInfo.getId(), counts.get(bookInfo.getId())));
+        return rankCounts;
+    }
+
+    /**
+     * 查询数据库中存在的小说及其点击量
+     */
+    private List<BookInfo> listBooks(Collection<Long> bookIds) {
+        QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                DatabaseConsts.BookTable.COLUMN_VISIT_COUNT)
+            .in(DatabaseConsts.CommonColumnEnum.ID.getName(), bookIds);
+        return bookInfoMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 通过一次 Redis 管道增加当前小时和当天的点击量桶，用于日/周/月点击榜
+     * <p>
+     * 点击量桶只用于统计，刷新失败时不放回本地，避免重复累加总点击量
+     */
+    private void incrementVisitBuckets(Map<Long, Long> counts) {
+        LocalDateTime now = LocalDateTime.now();
+        String hourKey = getHourBucketKey(now);
+        String dayKey = getDayBucketKey(now.toLocalDate());
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                counts.forEach((bookId, count) -> {
+                    String member = String.valueOf(bookId);
+                    conn.zIncrBy(hourKey, count, member);
+                    conn.zIncrBy(dayKey, count, member);
+                });
+                conn.expire(hourKey, HOUR_BUCKET_TTL.toSeconds());
+                conn.expire(dayKey, DAY_BUCKET_TTL.toSeconds());
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("小说点击量桶刷新失败，本次共 {} 本小说", counts.size(), e);
+        }
+    }
+
+    /**
+     * 按批次通过 case when 语句批量更新数据库，数据库中不存在的小说ID直接丢弃
+     */
+    private void flushToDb(Map<Long, Long> counts) {
+        Map<Long, Long> bookCounts = new HashMap<>();
+        try {
+            listBooks(counts.keySet()).forEach(
+                bookInfo -> bookCounts.put(bookInfo.getId(), counts.get(bookInfo.getId())));
+        } catch (Exception e) {
+            log.error("小说点击量刷新到数据库失败，本次共 {} 本小说", counts.size(), e);
+            restore(counts);
+            return;
+        }
+        if (bookCounts.isEmpty()) {
+            return;
+        }
+        incrementVisitBuckets(bookCounts);
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> entry : bookCounts.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() == UPDATE_BATCH_SIZE) {
+                updateVisitCounts(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            updateVisitCounts(batch);
+        }
+    }
+
+    private void updateVisitCounts(Map<Long, Long> batch) {
+        try {
+            bookInfoMapper.addVisitCounts(batch);
+        } catch (Exception e) {
+            log.error("小说点击量刷新到数据库失败，本次共 {} 本小说", batch.size(), e);
+            restore(batch);
+        }
+    }
+
+    /**
+     * 刷新失败时把点击量加回本地，下次继续刷新
+     */
+    private void restore(Map<Long, Long> counts) {
+        counts.forEach((bookId, count) ->
+            visitCounts.computeIfAbsent(bookId, k -> new LongAdder()).add(count));
+    }
+
+    /**
+     * 获取指定时间所在小时的点击量桶 KEY
+     */
+    public static String getHourBucketKey(LocalDateTime time) {
+        return CacheConsts.BOOK_VISIT_HOUR_BUCKET_KEY_PREFIX + HOUR_BUCKET_FORMATTER.format(time);
+    }
+
+    /**
+     * 获取指定日期的点击量桶 KEY
+     */
+    public static String getDayBucketKey(LocalDate date) {
+        return CacheConsts.BOOK_VISIT_DAY_BUCKET_KEY_PREFIX + DAY_BUCKET_FORMATTER.format(date);
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.xxyopen.novel.manager.dao;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookChapter;
+import io.github.xxyopen.novel.dao.mapper.BookChapterMapper;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * 小说模块 DAO管理类
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/6
+ */
+@Component
+@RequiredArgsConstructor
+public class BookDaoManager {
+
+    private final BookChapterMapper bookChapterMapper;
+
+    /**
+     * 批量查询小说的首章ID：先分组查询每本小说的最小章节号，再按章节号批量查询章节ID
+     *
+     * @param bookIds 小说ID集合
+     * @return 小说ID -> 首章ID，没有章节的小说不包含在结果中
+     */
+    public Map<Long, Long> listFirstChapterIds(Collection<Long> bookIds) {
+        if (CollectionUtils.isEmpty(bookIds)) {
+            return Collections.emptyMap();
+        }
+        QueryWrapper<BookChapter> minNumQueryWrapper = new QueryWrapper<>();
+        minNumQueryWrapper
+            .select(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID,
+                "min(" + DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM + ") as "
+                    + DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
+            .in(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookIds)
+            .groupBy(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID);
+        Map<Long, Integer> minNumMap = bookChapterMapper.selectList(minNumQueryWrapper).stream()
+            .collect(Collectors.toMap(BookChapter::getBookId, BookChapter::getChapterNum));
+        if (minNumMap.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        QueryWrapper<BookChapter> chapterQueryWrapper = new QueryWrapper<>();
+        chapterQueryWrapper
+            .select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID,
+                DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
+            .in(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, minNumMap.keySet())
+            .in(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM,
+                new HashSet<>(minNumMap.values()));
+        Map<Long, Long> firstChapterIdMap = new HashMap<>(minNumMap.size());
+        for (BookChapter chapter : bookChapterMapper.selectList(chapterQueryWrapper)) {
+            if (Objects.equals(minNumMap.get(chapter.getBookId()), chapter.getChapterNum())) {
+                firstChapterIdMap.put(chapter.getBookId(), chapter.getId());
+            }
+        }
+        return firstChapterIdMap;
+    }
+
+}
@@ -0,0 +1,166 @@
+package io.github.xxyopen.novel.manager.mq;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.AmqpConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookChangeOutbox;
+import io.github.xxyopen.novel.dao.mapper.BookChangeOutboxMapper;
+import io.github.xxyopen.novel.dto.mq.BookChangeMsgDto;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 小说信息改变消息 管理类
+ * <p>
+ * 使用事务发件箱模式：消息先和业务数据在同一个事务中写入发件箱表，事务提交后再批量发送到小说信息改变交换机，
+ * Broker 确认后删除；发送失败或节点宕机时由定时任务补发，保证消息不丢失（消费者需要幂等）
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/12
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookChangeMsgManager {
+
+    private static final String PUBLISH_LOCK_KEY = "Lock::bookChangeOutbox";
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 事务提交后延迟发送的时间（毫秒），合并短时间内的多次改变为一批发送
+     */
+    private static final long PUBLISH_DELAY = 100;
+
+    /**
+     * 等待 Broker 确认一批消息的最长时间（毫秒）
+     */
+    private static final long CONFIRM_TIMEOUT = 10 * 1000;
+
+    private final BookChangeOutboxMapper bookChangeOutboxMapper;
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final RedissonClient redissonClient;
+
+    private final TaskScheduler taskScheduler;
+
+    /**
+     * 是否开启 MQ，未开启时没有消费者，不记录消息
+     */
+    @Value("${spring.amqp.enabled:false}")
+    private boolean amqpEnabled;
+
+    /**
+     * 是否已安排发送
+     */
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+
+    /**
+     * 记录小说信息改变消息，需要在业务事务中调用，事务提交后发送
+     *
+     * @param bookId    小说ID
+     * @param chapterId 章节ID，小说信息改变（非章节发布）时为 null
+     */
+    public void recordBookChange(Long bookId, Long chapterId) {
+        if (!amqpEnabled) {
+            return;
+        }
+        BookChangeOutbox outbox = new BookChangeOutbox();
+        outbox.setBookId(bookId);
+        outbox.setChapterId(chapterId);
+        outbox.setCreateTime(LocalDateTime.now());
+        bookChangeOutboxMapper.insert(outbox);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedulePublish();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schedulePublish();
+            }
+        });
+    }
+
+    /**
+     * 每 5 秒补发一次发件箱中遗留的消息
+     */
+    @Scheduled(fixedDelay = 5 * 1000)
+    public void publishPending() {
+        if (!amqpEnabled) {
+            return;
+        }
+        RLock lock = redissonClient.getLock(PUBLISH_LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            List<BookChangeOutbox> outboxes;
+            do {
+                QueryWrapper<BookChangeOutbox> queryWrapper = new QueryWrapper<>();
+                queryWrapper.orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                    .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+                outboxes = bookChangeOutboxMapper.selectList(queryWrapper);
+                if (outboxes.isEmpty()) {
+                    return;
+                }
+                publish(outboxes);
+                bookChangeOutboxMapper.deleteBatchIds(
+                    outboxes.stream().map(BookChangeOutbox::getId).toList());
+            } while (outboxes.size() == BATCH_SIZE);
+        } catch (Exception e) {
+            // 未删除的消息等待下次补发
+            log.error("小说信息改变消息发送失败", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 合并短时间内的多次发送请求
+     */
+    private void schedulePublish() {
+        if (publishScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                publishScheduled.set(false);
+                publishPending();
+            }, Instant.now().plusMillis(PUBLISH_DELAY));
+        }
+    }
+
+    /**
+     * 在同一个通道中发送一批消息，同一批中重复的改变只发送一次
+     * <p>
+     * 发送后等待 Broker 确认这一批消息，未确认或超时时抛出异常，发件箱中的消息保留到下次补发
+     */
+    private void publish(List<BookChangeOutbox> outboxes) {
+        Set<BookChangeMsgDto> msgs = new LinkedHashSet<>();
+        for (BookChangeOutbox outbox : outboxes) {
+            msgs.add(new BookChangeMsgDto(outbox.getBookId(), outbox.getChapterId()));
+        }
+        rabbitTemplate.invoke(operations -> {
+            for (BookChangeMsgDto msg : msgs) {
+                operations.convertAndSend(AmqpConsts.BookChangeMq.EXCHANGE_NAME, "", msg);
+            }
+            operations.waitForConfirmsOrDie(CONFIRM_TIMEOUT);
+            return null;
+        });
+    }
+
+}
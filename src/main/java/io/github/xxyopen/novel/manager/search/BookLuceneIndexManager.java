@@ -0,0 +1,369 @@
+package io.github.xxyopen.novel.manager.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.core.constant.EsConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.MMapDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说 Lucene 本地索引管理类
+ * <p>
+ * 索引存放在本地磁盘，通过 MMapDirectory 内存映射读取；文本字段使用 CJK 分词器（中日韩文字按二元分词）。
+ * 启动时根据提交中保存的同步水位增量追平（没有索引时全量构建），之后每分钟按小说更新时间增量同步，
+ * 开启 MQ 时还会实时处理小说信息改变消息
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/13
+ */
+@ConditionalOnExpression("'${spring.elasticsearch.enabled}' == 'false' and ${novel.search.lucene.enabled:false}")
+@Component
+@Slf4j
+public class BookLuceneIndexManager {
+
+    /**
+     * 提交数据中保存同步水位的 key
+     */
+    private static final String WATERMARK_KEY = "watermark";
+
+    /**
+     * 增量同步时水位向前回退的时间，覆盖同步时还未提交的事务写入的更新时间
+     */
+    private static final Duration WATERMARK_OVERLAP = Duration.ofMinutes(1);
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final Analyzer analyzer = new CJKAnalyzer();
+
+    private final MMapDirectory directory;
+
+    /**
+     * 全量构建失败回滚时会关闭并重新打开
+     */
+    private volatile IndexWriter indexWriter;
+
+    private volatile SearcherManager searcherManager;
+
+    /**
+     * 保护 IndexWriter 和搜索器管理器的替换：消息写入、获取和刷新搜索器持有读锁，回滚替换和关闭持有写锁。
+     * 增量同步和全量构建通过 synchronized 与回滚互斥，不需要持有读锁
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    /**
+     * 已同步到的小说更新时间
+     */
+    private volatile LocalDateTime watermark;
+
+    /**
+     * 是否正在全量构建，构建期间不刷新搜索器，搜索仍使用构建前的索引
+     */
+    private volatile boolean rebuilding;
+
+    public BookLuceneIndexManager(BookInfoMapper bookInfoMapper,
+        @Value("${novel.search.lucene.index-path}") String indexPath) throws IOException {
+        this.bookInfoMapper = bookInfoMapper;
+        this.directory = new MMapDirectory(Path.of(indexPath));
+        openWriter();
+        if (DirectoryReader.indexExists(directory)) {
+            String value = SegmentInfos.readLatestCommit(directory).getUserData()
+                .get(WATERMARK_KEY);
+            this.watermark = value == null ? null : LocalDateTime.parse(value);
+        }
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    public IndexSearcher acquireSearcher() throws IOException {
+        swapLock.readLock().lock();
+        try {
+            return searcherManager.acquire();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void releaseSearcher(IndexSearcher searcher) throws IOException {
+        // 释放只减少搜索器的引用计数，回滚后重新打开搜索器管理器也可以释放之前获取的搜索器
+        searcherManager.release(searcher);
+    }
+
+    /**
+     * 应用启动后追平索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() throws IOException {
+        sync();
+    }
+
+    /**
+     * 每分钟按小说更新时间增量同步一次，并提交索引；没有同步水位（索引不存在或上次构建失败）时全量构建
+     */
+    @Scheduled(fixedDelay = 60 * 1000, initialDelay = 60 * 1000)
+    public synchronized void sync() throws IOException {
+        if (watermark == null) {
+            rebuild();
+            return;
+        }
+        LocalDateTime from = watermark.minus(WATERMARK_OVERLAP);
+        LocalDateTime to = LocalDateTime.now();
+        String updateTimeColumn = DatabaseConsts.CommonColumnEnum.UPDATE_TIME.getName();
+        String idColumn = DatabaseConsts.CommonColumnEnum.ID.getName();
+        LocalDateTime lastUpdateTime = from;
+        long lastId = 0L;
+        long total = 0L;
+        while (true) {
+            LocalDateTime afterUpdateTime = lastUpdateTime;
+            long afterId = lastId;
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.lt(updateTimeColumn, to)
+                .and(w -> w.gt(updateTimeColumn, afterUpdateTime)
+                    .or(o -> o.eq(updateTimeColumn, afterUpdateTime).gt(idColumn, afterId)))
+                .orderByAsc(updateTimeColumn, idColumn)
+                .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+            List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+            if (bookInfos.isEmpty()) {
+                break;
+            }
+            for (BookInfo bookInfo : bookInfos) {
+                updateDocument(bookInfo);
+            }
+            total += bookInfos.size();
+            BookInfo last = bookInfos.get(bookInfos.size() - 1);
+            lastUpdateTime = last.getUpdateTime();
+            lastId = last.getId();
+        }
+        commit(to);
+        if (total > 0) {
+            log.info("小说 Lucene 索引增量同步完成，共 {} 本小说", total);
+        }
+    }
+
+    /**
+     * 按主键分批读取所有小说全量构建索引，构建完成前搜索仍使用旧的索引
+     * <p>
+     * 按小说ID更新文档，构建期间由小说信息改变消息写入的小说不会重复
+     */
+    public synchronized void rebuild() throws IOException {
+        long start = System.currentTimeMillis();
+        LocalDateTime startTime = LocalDateTime.now();
+        rebuilding = true;
+        try {
+            indexWriter.deleteAll();
+            long maxId = 0L;
+            long total = 0L;
+            while (true) {
+                QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+                queryWrapper.gt(DatabaseConsts.CommonColumnEnum.ID.getName(), maxId)
+                    .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                    .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+                List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+                if (bookInfos.isEmpty()) {
+                    break;
+                }
+                for (BookInfo bookInfo : bookInfos) {
+                    updateDocument(bookInfo);
+                }
+                total += bookInfos.size();
+                maxId = bookInfos.get(bookInfos.size() - 1).getId();
+            }
+            commit(startTime);
+            log.info("小说 Lucene 索引全量构建完成，共 {} 本小说，耗时 {} ms", total,
+                System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            // 构建失败时回滚到上次提交的索引，避免之后提交构建了一半的索引，由下次增量同步重新全量构建
+            watermark = null;
+            rollback();
+            throw e;
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    /**
+     * 更新指定小说的索引，由小说信息改变消息触发，最迟 1 秒后可被搜索到
+     * <p>
+     * 全量构建失败回滚时会丢弃这里写入的文档，由之后的全量构建从数据库重新写入
+     */
+    public void updateBooks(Collection<Long> bookIds) throws IOException {
+        List<BookInfo> bookInfos = bookInfoMapper.selectBatchIds(bookIds);
+        swapLock.readLock().lock();
+        try {
+            for (BookInfo bookInfo : bookInfos) {
+                updateDocument(bookInfo);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 每秒刷新一次搜索器，使新写入的文档可被搜索到
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void refresh() throws IOException {
+        if (rebuilding) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            searcherManager.maybeRefresh();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        swapLock.writeLock().lock();
+        try {
+            searcherManager.close();
+            if (rebuilding) {
+                // 全量构建还未完成，关闭时会提交构建了一半的索引，直接丢弃未提交的修改
+                indexWriter.rollback();
+            } else {
+                indexWriter.close();
+            }
+            directory.close();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void openWriter() throws IOException {
+        indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(indexWriter, null);
+    }
+
+    /**
+     * 丢弃上次提交之后的所有修改，回滚会关闭 IndexWriter，需要重新打开，搜索器管理器也随之替换
+     */
+    private void rollback() {
+        swapLock.writeLock().lock();
+        SearcherManager oldSearcherManager = searcherManager;
+        try {
+            indexWriter.rollback();
+            openWriter();
+            oldSearcherManager.close();
+        } catch (IOException e) {
+            log.error("小说 Lucene 索引回滚失败", e);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void updateDocument(BookInfo bookInfo) throws IOException {
+        indexWriter.updateDocument(
+            new Term(EsConsts.BookIndex.FIELD_ID, String.valueOf(bookInfo.getId())),
+            buildDocument(bookInfo));
+    }
+
+    private void commit(LocalDateTime newWatermark) throws IOException {
+        indexWriter.setLiveCommitData(Map.of(WATERMARK_KEY, newWatermark.toString()).entrySet());
+        indexWriter.commit();
+        searcherManager.maybeRefresh();
+        watermark = newWatermark;
+    }
+
+    /**
+     * 构建小说文档：文本字段分词索引，过滤字段使用数值点索引，排序字段使用 DocValues
+     */
+    private Document buildDocument(BookInfo bookInfo) {
+        Document doc = new Document();
+        doc.add(new StringField(EsConsts.BookIndex.FIELD_ID, String.valueOf(bookInfo.getId()),
+            Field.Store.YES));
+        addText(doc, EsConsts.BookIndex.FIELD_BOOK_NAME, bookInfo.getBookName(), Field.Store.YES);
+        addText(doc, EsConsts.BookIndex.FIELD_AUTHOR_NAME, bookInfo.getAuthorName(),
+            Field.Store.YES);
+        addText(doc, EsConsts.BookIndex.FIELD_BOOK_DESC, bookInfo.getBookDesc(), Field.Store.NO);
+        addInt(doc, EsConsts.BookIndex.FIELD_WORK_DIRECTION, bookInfo.getWorkDirection());
+        if (bookInfo.getCategoryId() != null) {
+            doc.add(new LongPoint(EsConsts.BookIndex.FIELD_CATEGORY_ID, bookInfo.getCategoryId()));
+        }
+        addInt(doc, EsConsts.BookIndex.FIELD_IS_VIP, bookInfo.getIsVip());
+        addInt(doc, EsConsts.BookIndex.FIELD_BOOK_STATUS, bookInfo.getBookStatus());
+        addInt(doc, EsConsts.BookIndex.FIELD_WORD_COUNT, bookInfo.getWordCount());
+        doc.add(new NumericDocValuesField(EsConsts.BookIndex.FIELD_WORD_COUNT,
+            Objects.requireNonNullElse(bookInfo.getWordCount(), 0)));
+        long updateTime = bookInfo.getLastChapterUpdateTime() == null ? 0L
+            : bookInfo.getLastChapterUpdateTime().getTime();
+        doc.add(new LongPoint(EsConsts.BookIndex.FIELD_LAST_CHAPTER_UPDATE_TIME, updateTime));
+        doc.add(new NumericDocValuesField(EsConsts.BookIndex.FIELD_LAST_CHAPTER_UPDATE_TIME,
+            updateTime));
+        doc.add(new NumericDocValuesField(EsConsts.BookIndex.FIELD_VISIT_COUNT,
+            Objects.requireNonNullElse(bookInfo.getVisitCount(), 0L)));
+        // 只用于返回结果的字段
+        if (bookInfo.getCategoryId() != null) {
+            doc.add(new StoredField(EsConsts.BookIndex.FIELD_CATEGORY_ID,
+                bookInfo.getCategoryId()));
+        }
+        if (bookInfo.getCategoryName() != null) {
+            doc.add(new StoredField(EsConsts.BookIndex.FIELD_CATEGORY_NAME,
+                bookInfo.getCategoryName()));
+        }
+        if (bookInfo.getAuthorId() != null) {
+            doc.add(new StoredField(EsConsts.BookIndex.FIELD_AUTHOR_ID, bookInfo.getAuthorId()));
+        }
+        if (bookInfo.getWordCount() != null) {
+            doc.add(new StoredField(EsConsts.BookIndex.FIELD_WORD_COUNT,
+                bookInfo.getWordCount()));
+        }
+        if (bookInfo.getLastChapterName() != null) {
+            doc.add(new StoredField(EsConsts.BookIndex.FIELD_LAST_CHAPTER_NAME,
+                bookInfo.getLastChapterName()));
+        }
+        return doc;
+    }
+
+    private void addText(Document doc, String field, String value, Field.Store store) {
+        if (value != null) {
+            doc.add(new TextField(field, value, store));
+        }
+    }
+
+    private void addInt(Document doc, String field, Integer value) {
+        if (value != null) {
+            doc.add(new IntPoint(field, value));
+        }
+    }
+
+}
@@ -0,0 +1,313 @@
+package io.github.xxyopen.novel.manager.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说名/作者名 N-gram 倒排索引管理类，供数据库搜索解析关键词
+ * <p>
+ * 在内存中为小说名和作者名的每个字符（一元）和相邻两个字符（二元）维护按小说ID升序排列的倒排表，
+ * 关键词的所有二元（单字关键词为一元）倒排表求交集得到候选小说，再校验是否包含整个关键词，
+ * 得到的小说ID交给数据库按主键查询，避免 like '%关键词%' 全表扫描
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/14
+ */
+@ConditionalOnExpression("'${spring.elasticsearch.enabled}' == 'false' and !${novel.search.lucene.enabled:false}")
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookNgramIndexManager {
+
+    /**
+     * 匹配的小说数超过该值时按主键查询不再划算，回退到 like 查询
+     */
+    private static final int MAX_MATCH_SIZE = 10000;
+
+    /**
+     * 增量同步时水位向前回退的时间，覆盖同步时还未提交的事务写入的更新时间
+     */
+    private static final Duration WATERMARK_OVERLAP = Duration.ofMinutes(1);
+
+    private static final long[] EMPTY = new long[0];
+
+    private final BookInfoMapper bookInfoMapper;
+
+    /**
+     * 词元 -> 按小说ID升序排列的倒排表，更新时整体替换数组，读取无需加锁
+     */
+    private final Map<String, long[]> postings = new ConcurrentHashMap<>();
+
+    /**
+     * 小说ID -> 已索引的小说名和作者名（小写）
+     */
+    private final Map<Long, String[]> indexedTexts = new ConcurrentHashMap<>();
+
+    /**
+     * 已同步到的小说更新时间，为 null 表示索引还未构建完成
+     */
+    private volatile LocalDateTime watermark;
+
+    /**
+     * 查询小说名或作者名包含关键词的小说ID
+     *
+     * @return 升序排列的小说ID；索引未构建完成或匹配的小说过多时返回 null，由调用方回退到 like 查询
+     */
+    public long[] search(String keyword) {
+        if (watermark == null) {
+            return null;
+        }
+        String normalized = normalize(keyword);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        List<long[]> lists = new ArrayList<>();
+        for (String token : queryTokens(normalized)) {
+            lists.add(postings.getOrDefault(token, EMPTY));
+        }
+        // 从最短的倒排表开始求交集
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        long[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+        // 所有二元都命中不代表包含整个关键词，还需校验
+        long[] result = new long[candidates.length];
+        int size = 0;
+        for (long bookId : candidates) {
+            String[] texts = indexedTexts.get(bookId);
+            if (texts != null && (texts[0].contains(normalized) || texts[1].contains(normalized))) {
+                result[size++] = bookId;
+            }
+        }
+        if (size > MAX_MATCH_SIZE) {
+            return null;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 应用启动后按主键分批读取所有小说构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void build() {
+        long start = System.currentTimeMillis();
+        LocalDateTime startTime = LocalDateTime.now();
+        // 按主键顺序读取，追加后的倒排表天然有序
+        Map<String, PostingBuilder> builders = new HashMap<>();
+        long maxId = 0L;
+        while (true) {
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                    DatabaseConsts.BookTable.COLUMN_BOOK_NAME,
+                    DatabaseConsts.BookTable.COLUMN_AUTHOR_NAME)
+                .gt(DatabaseConsts.CommonColumnEnum.ID.getName(), maxId)
+                .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+            List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+            if (bookInfos.isEmpty()) {
+                break;
+            }
+            for (BookInfo bookInfo : bookInfos) {
+                String[] texts = toTexts(bookInfo);
+                indexedTexts.put(bookInfo.getId(), texts);
+                for (String token : indexTokens(texts)) {
+                    builders.computeIfAbsent(token, k -> new PostingBuilder())
+                        .add(bookInfo.getId());
+                }
+            }
+            maxId = bookInfos.get(bookInfos.size() - 1).getId();
+        }
+        builders.forEach((token, builder) -> postings.put(token, builder.toArray()));
+        watermark = startTime;
+        log.info("小说 N-gram 索引构建完成，共 {} 本小说，{} 个词元，耗时 {} ms",
+            indexedTexts.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 每 10 秒按小说更新时间增量更新索引
+     */
+    @Scheduled(fixedDelay = 10 * 1000)
+    public synchronized void sync() {
+        if (watermark == null) {
+            return;
+        }
+        LocalDateTime to = LocalDateTime.now();
+        String updateTimeColumn = DatabaseConsts.CommonColumnEnum.UPDATE_TIME.getName();
+        String idColumn = DatabaseConsts.CommonColumnEnum.ID.getName();
+        LocalDateTime lastUpdateTime = watermark.minus(WATERMARK_OVERLAP);
+        long lastId = 0L;
+        while (true) {
+            LocalDateTime afterUpdateTime = lastUpdateTime;
+            long afterId = lastId;
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(idColumn, updateTimeColumn,
+                    DatabaseConsts.BookTable.COLUMN_BOOK_NAME,
+                    DatabaseConsts.BookTable.COLUMN_AUTHOR_NAME)
+                .lt(updateTimeColumn, to)
+                .and(w -> w.gt(updateTimeColumn, afterUpdateTime)
+                    .or(o -> o.eq(updateTimeColumn, afterUpdateTime).gt(idColumn, afterId)))
+                .orderByAsc(updateTimeColumn, idColumn)
+                .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+            List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+            if (bookInfos.isEmpty()) {
+                break;
+            }
+            bookInfos.forEach(this::update);
+            BookInfo last = bookInfos.get(bookInfos.size() - 1);
+            lastUpdateTime = last.getUpdateTime();
+            lastId = last.getId();
+        }
+        watermark = to;
+    }
+
+    /**
+     * 更新单本小说的索引，只修改新旧词元的差异部分
+     */
+    private void update(BookInfo bookInfo) {
+        String[] texts = toTexts(bookInfo);
+        String[] oldTexts = indexedTexts.put(bookInfo.getId(), texts);
+        Set<String> newTokens = indexTokens(texts);
+        Set<String> oldTokens = oldTexts == null ? Set.of() : indexTokens(oldTexts);
+        long bookId = bookInfo.getId();
+        for (String token : oldTokens) {
+            if (!newTokens.contains(token)) {
+                postings.computeIfPresent(token, (k, list) -> {
+                    long[] removed = remove(list, bookId);
+                    return removed.length == 0 ? null : removed;
+                });
+            }
+        }
+        for (String token : newTokens) {
+            if (!oldTokens.contains(token)) {
+                postings.merge(token, new long[]{bookId}, (list, v) -> insert(list, bookId));
+            }
+        }
+    }
+
+    private String[] toTexts(BookInfo bookInfo) {
+        return new String[]{normalize(bookInfo.getBookName()),
+            normalize(bookInfo.getAuthorName())};
+    }
+
+    private String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引词元：每个字段的所有一元和二元
+     */
+    private Set<String> indexTokens(String[] texts) {
+        Set<String> tokens = new HashSet<>();
+        for (String text : texts) {
+            for (int i = 0; i < text.length(); i++) {
+                tokens.add(text.substring(i, i + 1));
+                if (i + 1 < text.length()) {
+                    tokens.add(text.substring(i, i + 2));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 查询词元：单字关键词使用一元，否则使用所有二元
+     */
+    private Set<String> queryTokens(String keyword) {
+        if (keyword.length() == 1) {
+            return Set.of(keyword);
+        }
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i + 1 < keyword.length(); i++) {
+            tokens.add(keyword.substring(i, i + 2));
+        }
+        return tokens;
+    }
+
+    static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    static long[] insert(long[] list, long bookId) {
+        int index = Arrays.binarySearch(list, bookId);
+        if (index >= 0) {
+            return list;
+        }
+        int insertAt = -index - 1;
+        long[] result = new long[list.length + 1];
+        System.arraycopy(list, 0, result, 0, insertAt);
+        result[insertAt] = bookId;
+        System.arraycopy(list, insertAt, result, insertAt + 1, list.length - insertAt);
+        return result;
+    }
+
+    static long[] remove(long[] list, long bookId) {
+        int index = Arrays.binarySearch(list, bookId);
+        if (index < 0) {
+            return list;
+        }
+        long[] result = new long[list.length - 1];
+        System.arraycopy(list, 0, result, 0, index);
+        System.arraycopy(list, index + 1, result, index, list.length - index - 1);
+        return result;
+    }
+
+    /**
+     * 构建索引时使用的可增长倒排表
+     */
+    private static class PostingBuilder {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+    }
+
+}
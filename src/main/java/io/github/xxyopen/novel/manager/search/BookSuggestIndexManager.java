@@ -0,0 +1,335 @@
+package io.github.xxyopen.novel.manager.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.sourceforge.pinyin4j.PinyinHelper;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 搜索联想索引管理类
+ * <p>
+ * 在内存中维护所有小说的小说名、作者名及其拼音首字母，构建按点击量加权的 FST，前缀查询不访问数据库和 Elasticsearch；
+ * FST 不可修改，小说信息改变时只增量更新内存中的小说信息，再由小说信息重新构建 FST 后整体替换
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/15
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookSuggestIndexManager {
+
+    /**
+     * 匹配键和展示文本的分隔符，匹配键为小写的小说名、作者名或拼音首字母
+     */
+    private static final char SEPARATOR = '\u001F';
+
+    /**
+     * 前缀的最大长度
+     */
+    private static final int MAX_PREFIX_LENGTH = 20;
+
+    /**
+     * 增量同步时水位向前回退的时间，覆盖同步时还未提交的事务写入的更新时间
+     */
+    private static final Duration WATERMARK_OVERLAP = Duration.ofMinutes(1);
+
+    private final BookInfoMapper bookInfoMapper;
+
+    /**
+     * 小说ID -> 联想信息，全量重建时整体替换
+     */
+    private volatile Map<Long, BookSuggestion> suggestions = new ConcurrentHashMap<>();
+
+    /**
+     * 当前使用的 FST，为 null 表示还未构建完成
+     */
+    private volatile WFSTCompletionLookup lookup;
+
+    /**
+     * 已同步到的小说更新时间
+     */
+    private volatile LocalDateTime watermark;
+
+    /**
+     * 小说联想信息已改变但 FST 还未重新构建成功
+     */
+    private boolean dirty;
+
+    /**
+     * 按前缀查询联想词，点击量高的优先
+     *
+     * @param prefix 前缀，支持小说名、作者名和拼音首字母
+     * @param size   最多返回的联想词数量
+     * @return 联想词（小说名或作者名）列表
+     */
+    public List<String> suggest(String prefix, int size) {
+        WFSTCompletionLookup currentLookup = lookup;
+        String key = normalize(prefix);
+        if (currentLookup == null || key.isEmpty() || key.length() > MAX_PREFIX_LENGTH) {
+            return List.of();
+        }
+        // 不同匹配键（如小说名和拼音首字母）可能对应同一个展示文本，多取一些再去重
+        List<Lookup.LookupResult> results;
+        try {
+            results = currentLookup.lookup(key, false, size * 2);
+        } catch (IOException e) {
+            log.error("搜索联想查询失败，prefix:{}", prefix, e);
+            return List.of();
+        }
+        Set<String> texts = new LinkedHashSet<>();
+        for (Lookup.LookupResult result : results) {
+            String entry = result.key.toString();
+            texts.add(entry.substring(entry.indexOf(SEPARATOR) + 1));
+            if (texts.size() == size) {
+                break;
+            }
+        }
+        return new ArrayList<>(texts);
+    }
+
+    /**
+     * 应用启动后及每小时全量构建一次索引，点击量的变化不会更新小说的更新时间，需要通过全量构建刷新权重
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 * * * ?")
+    public synchronized void build() {
+        long start = System.currentTimeMillis();
+        LocalDateTime startTime = LocalDateTime.now();
+        Map<Long, BookSuggestion> newSuggestions = new ConcurrentHashMap<>();
+        long maxId = 0L;
+        while (true) {
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                    DatabaseConsts.BookTable.COLUMN_BOOK_NAME,
+                    DatabaseConsts.BookTable.COLUMN_AUTHOR_NAME,
+                    DatabaseConsts.BookTable.COLUMN_VISIT_COUNT)
+                .gt(DatabaseConsts.CommonColumnEnum.ID.getName(), maxId)
+                .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+            List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+            if (bookInfos.isEmpty()) {
+                break;
+            }
+            for (BookInfo bookInfo : bookInfos) {
+                newSuggestions.put(bookInfo.getId(), BookSuggestion.of(bookInfo));
+            }
+            maxId = bookInfos.get(bookInfos.size() - 1).getId();
+        }
+        if (rebuildLookup(newSuggestions)) {
+            suggestions = newSuggestions;
+            watermark = startTime;
+            dirty = false;
+            log.info("搜索联想索引构建完成，共 {} 本小说，耗时 {} ms", newSuggestions.size(),
+                System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * 每 10 秒按小说更新时间增量同步，有改变时重新构建 FST
+     */
+    @Scheduled(fixedDelay = 10 * 1000)
+    public synchronized void sync() {
+        if (watermark == null) {
+            return;
+        }
+        LocalDateTime to = LocalDateTime.now();
+        String updateTimeColumn = DatabaseConsts.CommonColumnEnum.UPDATE_TIME.getName();
+        String idColumn = DatabaseConsts.CommonColumnEnum.ID.getName();
+        LocalDateTime lastUpdateTime = watermark.minus(WATERMARK_OVERLAP);
+        long lastId = 0L;
+        while (true) {
+            LocalDateTime afterUpdateTime = lastUpdateTime;
+            long afterId = lastId;
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(idColumn, updateTimeColumn,
+                    DatabaseConsts.BookTable.COLUMN_BOOK_NAME,
+                    DatabaseConsts.BookTable.COLUMN_AUTHOR_NAME,
+                    DatabaseConsts.BookTable.COLUMN_VISIT_COUNT)
+                .lt(updateTimeColumn, to)
+                .and(w -> w.gt(updateTimeColumn, afterUpdateTime)
+                    .or(o -> o.eq(updateTimeColumn, afterUpdateTime).gt(idColumn, afterId)))
+                .orderByAsc(updateTimeColumn, idColumn)
+                .last(DatabaseConsts.SqlEnum.LIMIT_500.getSql());
+            List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+            if (bookInfos.isEmpty()) {
+                break;
+            }
+            for (BookInfo bookInfo : bookInfos) {
+                BookSuggestion suggestion = BookSuggestion.of(bookInfo);
+                // 只有小说名、作者名或点击量改变才需要重新构建
+                if (!suggestion.equals(suggestions.put(bookInfo.getId(), suggestion))) {
+                    dirty = true;
+                }
+            }
+            BookInfo last = bookInfos.get(bookInfos.size() - 1);
+            lastUpdateTime = last.getUpdateTime();
+            lastId = last.getId();
+        }
+        // 构建失败时保留改变标记，下次同步重试
+        if (dirty && rebuildLookup(suggestions)) {
+            dirty = false;
+        }
+        watermark = to;
+    }
+
+    /**
+     * 由小说联想信息重新构建 FST 并替换当前使用的 FST，同一个匹配键只保留最大的点击量
+     */
+    private boolean rebuildLookup(Map<Long, BookSuggestion> bookSuggestions) {
+        Map<String, Long> weights = new HashMap<>();
+        for (BookSuggestion suggestion : bookSuggestions.values()) {
+            for (String entry : suggestion.entries()) {
+                weights.merge(entry, suggestion.weight(), Math::max);
+            }
+        }
+        WFSTCompletionLookup newLookup = new WFSTCompletionLookup(new ByteBuffersDirectory(),
+            "suggest");
+        try {
+            newLookup.build(new WeightIterator(weights));
+        } catch (IOException e) {
+            log.error("搜索联想索引构建失败", e);
+            return false;
+        }
+        lookup = newLookup;
+        return true;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (char c : text.strip().toCharArray()) {
+            // 去掉控制字符，避免匹配到分隔符之后的展示文本
+            if (!Character.isISOControl(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 拼音首字母，字母和数字原样保留（小写），其它字符忽略
+     *
+     * @return 拼音首字母；不包含汉字时返回 null
+     */
+    private static String toInitials(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean hasHan = false;
+        for (char c : text.toCharArray()) {
+            String[] pinyins = PinyinHelper.toHanyuPinyinStringArray(c);
+            if (pinyins != null && pinyins.length > 0) {
+                // 多音字取第一个读音
+                sb.append(pinyins[0].charAt(0));
+                hasHan = true;
+            } else if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return hasHan ? sb.toString() : null;
+    }
+
+    /**
+     * 单本小说的联想信息
+     *
+     * @param entries 匹配键和展示文本组成的联想条目
+     * @param weight  权重（点击量）
+     */
+    private record BookSuggestion(List<String> entries, long weight) {
+
+        static BookSuggestion of(BookInfo bookInfo) {
+            List<String> entries = new ArrayList<>(4);
+            for (String text : new String[]{bookInfo.getBookName(), bookInfo.getAuthorName()}) {
+                String key = normalize(text);
+                if (key.isEmpty()) {
+                    continue;
+                }
+                String display = text.strip();
+                entries.add(key + SEPARATOR + display);
+                String initials = toInitials(display);
+                if (initials != null && !initials.equals(key)) {
+                    entries.add(initials + SEPARATOR + display);
+                }
+            }
+            // FST 的权重不能超过 int 最大值
+            long visitCount = bookInfo.getVisitCount() == null ? 0L : bookInfo.getVisitCount();
+            return new BookSuggestion(entries, Math.min(visitCount, Integer.MAX_VALUE));
+        }
+
+    }
+
+    /**
+     * 联想条目迭代器，供 FST 构建使用
+     */
+    private static class WeightIterator implements InputIterator {
+
+        private final Iterator<Map.Entry<String, Long>> iterator;
+
+        private long weight;
+
+        WeightIterator(Map<String, Long> weights) {
+            this.iterator = weights.entrySet().iterator();
+        }
+
+        @Override
+        public BytesRef next() {
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            Map.Entry<String, Long> entry = iterator.next();
+            weight = entry.getValue();
+            return new BytesRef(entry.getKey());
+        }
+
+        @Override
+        public long weight() {
+            return weight;
+        }
+
+        @Override
+        public BytesRef payload() {
+            return null;
+        }
+
+        @Override
+        public boolean hasPayloads() {
+            return false;
+        }
+
+        @Override
+        public Set<BytesRef> contexts() {
+            return null;
+        }
+
+        @Override
+        public boolean hasContexts() {
+            return false;
+        }
+
+    }
+
+}
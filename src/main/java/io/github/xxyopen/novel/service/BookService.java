@@ -8,6 +8,8 @@ import io.github.xxyopen.novel.dto.req.ChapterAddReqDto;
 import io.github.xxyopen.novel.dto.req.UserCommentReqDto;
 import io.github.xxyopen.novel.dto.resp.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
 
@@ -26,6 +28,27 @@ public interface BookService {
      */
     RestResp<List<BookRankRespDto>> listVisitRankBooks();
 
+    /**
+     * 小说日点击榜（最近 24 小时）查询
+     *
+     * @return 小说点击排行列表
+     */
+    RestResp<List<BookRankRespDto>> listDayVisitRankBooks();
+
+    /**
+     * 小说周点击榜（最近 7 天）查询
+     *
+     * @return 小说点击排行列表
+     */
+    RestResp<List<BookRankRespDto>> listWeekVisitRankBooks();
+
+    /**
+     * 小说月点击榜（最近 30 天）查询
+     *
+     * @return 小说点击排行列表
+     */
+    RestResp<List<BookRankRespDto>> listMonthVisitRankBooks();
+
     /**
      * 小说新书榜查询
      *
@@ -97,12 +120,22 @@ public interface BookService {
     RestResp<Long> getNextChapterId(Long chapterId);
 
     /**
-     * 小说章节列表查询
+     * 小说章节列表查询，直接将 JSON 响应流式写出
+     *
+     * @param bookId       小说ID
+     * @param outputStream 响应输出流
+     * @throws IOException 写出失败
+     */
+    void writeChapters(Long bookId, OutputStream outputStream) throws IOException;
+
+    /**
+     * 小说章节列表分页查询
      *
      * @param bookId 小说ID
-     * @return 小说章节列表
+     * @param dto    分页参数
+     * @return 小说章节分页数据
      */
-    RestResp<List<BookChapterRespDto>> listChapters(Long bookId);
+    RestResp<PageRespDto<BookChapterRespDto>> listChapters(Long bookId, PageReqDto dto);
 
     /**
      * 小说分类列表查询
@@ -0,0 +1,22 @@
+package io.github.xxyopen.novel.service;
+
+import io.github.xxyopen.novel.core.common.resp.RestResp;
+import java.util.List;
+
+/**
+ * 搜索联想 服务类
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/15
+ */
+public interface SuggestService {
+
+    /**
+     * 搜索联想
+     *
+     * @param keyword 已输入的关键词前缀
+     * @return 联想词列表
+     */
+    RestResp<List<String>> suggest(String keyword);
+
+}
@@ -3,6 +3,8 @@ package io.github.xxyopen.novel.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.xxyopen.novel.core.annotation.Key;
 import io.github.xxyopen.novel.core.annotation.Lock;
 import io.github.xxyopen.novel.core.auth.UserHolder;
@@ -22,6 +24,7 @@ import io.github.xxyopen.novel.dao.mapper.BookCommentMapper;
 import io.github.xxyopen.novel.dao.mapper.BookContentMapper;
 import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
 import io.github.xxyopen.novel.dto.AuthorInfoDto;
+import io.github.xxyopen.novel.dto.BookChapterCatalogDto;
 import io.github.xxyopen.novel.dto.req.BookAddReqDto;
 import io.github.xxyopen.novel.dto.req.ChapterAddReqDto;
 import io.github.xxyopen.novel.dto.req.UserCommentReqDto;
@@ -35,26 +38,33 @@ import io.github.xxyopen.novel.dto.resp.BookRankRespDto;
 import io.github.xxyopen.novel.manager.cache.AuthorInfoCacheManager;
 import io.github.xxyopen.novel.manager.cache.BookCategoryCacheManager;
 import io.github.xxyopen.novel.manager.cache.BookChapterCacheManager;
+import io.github.xxyopen.novel.manager.cache.BookChapterCatalogCacheManager;
+import io.github.xxyopen.novel.manager.cache.BookChapterIndexCacheManager;
 import io.github.xxyopen.novel.manager.cache.BookContentCacheManager;
 import io.github.xxyopen.novel.manager.cache.BookInfoCacheManager;
 import io.github.xxyopen.novel.manager.cache.BookRankCacheManager;
+import io.github.xxyopen.novel.manager.cache.BookSearchCacheManager;
+import io.github.xxyopen.novel.manager.cache.BookVisitCountCacheManager;
 import io.github.xxyopen.novel.manager.dao.UserDaoManager;
+import io.github.xxyopen.novel.manager.mq.BookChangeMsgManager;
 import io.github.xxyopen.novel.service.BookService;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.task.AsyncTaskExecutor;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.CollectionUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * 小说模块 服务实现类
@@ -75,10 +85,20 @@ public class BookServiceImpl implements BookService {
 
     private final BookChapterCacheManager bookChapterCacheManager;
 
+    private final BookChapterIndexCacheManager bookChapterIndexCacheManager;
+
+    private final BookChapterCatalogCacheManager bookChapterCatalogCacheManager;
+
     private final BookContentCacheManager bookContentCacheManager;
 
     private final AuthorInfoCacheManager authorInfoCacheManager;
 
+    private final BookVisitCountCacheManager bookVisitCountCacheManager;
+
+    private final BookSearchCacheManager bookSearchCacheManager;
+
+    private final BookChangeMsgManager bookChangeMsgManager;
+
     private final BookInfoMapper bookInfoMapper;
 
     private final BookChapterMapper bookChapterMapper;
@@ -89,17 +109,40 @@ public class BookServiceImpl implements BookService {
 
     private final UserDaoManager userDaoManager;
 
-    private final AsyncTaskExecutor taskExecutor;
+    private final TaskScheduler taskScheduler;
 
-    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
 
     private static final Integer REC_BOOK_COUNT = 4;
 
+    /**
+     * 缓存双删中第二次删除的延迟时间
+     */
+    private static final Duration CACHE_DELAY_EVICT_TIME = Duration.ofSeconds(1);
+
     @Override
     public RestResp<List<BookRankRespDto>> listVisitRankBooks() {
         return RestResp.ok(bookRankCacheManager.listVisitRankBooks());
     }
 
+    @Override
+    public RestResp<List<BookRankRespDto>> listDayVisitRankBooks() {
+        return RestResp.ok(
+            bookRankCacheManager.listPeriodVisitRankBooks(CacheConsts.BOOK_DAY_VISIT_RANK_KEY));
+    }
+
+    @Override
+    public RestResp<List<BookRankRespDto>> listWeekVisitRankBooks() {
+        return RestResp.ok(
+            bookRankCacheManager.listPeriodVisitRankBooks(CacheConsts.BOOK_WEEK_VISIT_RANK_KEY));
+    }
+
+    @Override
+    public RestResp<List<BookRankRespDto>> listMonthVisitRankBooks() {
+        return RestResp.ok(
+            bookRankCacheManager.listPeriodVisitRankBooks(CacheConsts.BOOK_MONTH_VISIT_RANK_KEY));
+    }
+
     @Override
     public RestResp<List<BookRankRespDto>> listNewestRankBooks() {
         return RestResp.ok(bookRankCacheManager.listNewestRankBooks());
@@ -128,9 +171,7 @@ public class BookServiceImpl implements BookService {
         String content = bookContentCacheManager.getBookContent(bookInfo.getLastChapterId());
 
         // 查询章节总数
-        QueryWrapper<BookChapter> chapterQueryWrapper = new QueryWrapper<>();
-        chapterQueryWrapper.eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId);
-        Long chapterTotal = bookChapterMapper.selectCount(chapterQueryWrapper);
+        long chapterTotal = bookChapterIndexCacheManager.getChapterIndex(bookId).size();
 
         // 组装数据并返回
         return RestResp.ok(BookChapterAboutRespDto.builder()
@@ -145,7 +186,7 @@ public class BookServiceImpl implements BookService {
         throws NoSuchAlgorithmException {
         Long categoryId = bookInfoCacheManager.getBookInfo(bookId).getCategoryId();
         List<Long> lastUpdateIdList = bookInfoCacheManager.getLastUpdateIdList(categoryId);
-        List<BookInfoRespDto> respDtoList = new ArrayList<>();
+        List<Long> recIdList = new ArrayList<>();
         List<Integer> recIdIndexList = new ArrayList<>();
         int count = 0;
         Random rand = SecureRandom.getInstanceStrong();
@@ -153,95 +194,72 @@ public class BookServiceImpl implements BookService {
             int recIdIndex = rand.nextInt(lastUpdateIdList.size());
             if (!recIdIndexList.contains(recIdIndex)) {
                 recIdIndexList.add(recIdIndex);
-                bookId = lastUpdateIdList.get(recIdIndex);
-                BookInfoRespDto bookInfo = bookInfoCacheManager.getBookInfo(bookId);
-                respDtoList.add(bookInfo);
+                recIdList.add(lastUpdateIdList.get(recIdIndex));
                 count++;
             }
         }
-        return RestResp.ok(respDtoList);
+        // 批量查询推荐小说信息
+        return RestResp.ok(bookInfoCacheManager.getBookInfos(recIdList));
     }
 
+    @Override
     public RestResp<Void> addVisitCount(Long bookId) {
-        if (redisTemplate.opsForZSet().rank(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, String.valueOf(bookId)) != null) {
-            // 如果书籍在排行榜中，直接在 Redis 中增加阅读量
-            redisTemplate.opsForZSet().incrementScore(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, String.valueOf(bookId), 1);
-        } else {
-            // 如果书籍不在排行榜中，使用数据库操作进行增加
-            bookInfoMapper.addVisitCount(bookId);
-        }
+        // 先在本地累计，由 BookVisitCountCacheManager 定时批量刷新到 Redis 点击榜或数据库
+        bookVisitCountCacheManager.addVisitCount(bookId);
         return RestResp.ok();
     }
 
-    @Scheduled(cron = "0 0 * * * ?") // 每小时执行一次
-    public void persistRankDataToDatabase() {
-        // 持久化排行榜数据到数据库
-        Set<ZSetOperations.TypedTuple<String>> rankData = redisTemplate.opsForZSet().reverseRangeWithScores(CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, 0, 29);
-        if (!CollectionUtils.isEmpty(rankData)) {
-            for (ZSetOperations.TypedTuple<String> tuple : rankData) {
-                Long id = Long.valueOf(tuple.getValue());
-                BookInfo bookInfo = bookInfoMapper.selectById(id);
-                if (bookInfo != null) {
-                    bookInfo.setVisitCount(Long.valueOf(tuple.getScore().longValue()));
-                    bookInfoMapper.updateById(bookInfo);
-                }
-            }
-        }
-    }
-
-
-
     @Override
     public RestResp<Long> getPreChapterId(Long chapterId) {
         // 查询小说ID 和 章节号
         BookChapterRespDto chapter = bookChapterCacheManager.getChapter(chapterId);
-        Long bookId = chapter.getBookId();
-        Integer chapterNum = chapter.getChapterNum();
 
-        // 查询上一章信息并返回章节ID
-        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId)
-            .lt(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM, chapterNum)
-            .orderByDesc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
-            .last(DatabaseConsts.SqlEnum.LIMIT_1.getSql());
-        return RestResp.ok(
-            Optional.ofNullable(bookChapterMapper.selectOne(queryWrapper))
-                .map(BookChapter::getId)
-                .orElse(null)
-        );
+        // 从章节目录索引中查询上一章ID
+        return RestResp.ok(bookChapterIndexCacheManager.getChapterIndex(chapter.getBookId())
+            .getPreChapterId(chapter.getChapterNum()));
     }
 
     @Override
     public RestResp<Long> getNextChapterId(Long chapterId) {
         // 查询小说ID 和 章节号
         BookChapterRespDto chapter = bookChapterCacheManager.getChapter(chapterId);
-        Long bookId = chapter.getBookId();
-        Integer chapterNum = chapter.getChapterNum();
 
-        // 查询下一章信息并返回章节ID
-        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId)
-            .gt(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM, chapterNum)
-            .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
-            .last(DatabaseConsts.SqlEnum.LIMIT_1.getSql());
-        return RestResp.ok(
-            Optional.ofNullable(bookChapterMapper.selectOne(queryWrapper))
-                .map(BookChapter::getId)
-                .orElse(null)
-        );
+        // 从章节目录索引中查询下一章ID
+        return RestResp.ok(bookChapterIndexCacheManager.getChapterIndex(chapter.getBookId())
+            .getNextChapterId(chapter.getChapterNum()));
     }
 
     @Override
-    public RestResp<List<BookChapterRespDto>> listChapters(Long bookId) {
-        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId)
-            .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM);
-        return RestResp.ok(bookChapterMapper.selectList(queryWrapper).stream()
-            .map(v -> BookChapterRespDto.builder()
-                .id(v.getId())
-                .chapterName(v.getChapterName())
-                .isVip(v.getIsVip())
-                .build()).toList());
+    public void writeChapters(Long bookId, OutputStream outputStream) throws IOException {
+        BookChapterCatalogDto catalog = bookChapterCatalogCacheManager.getChapterCatalog(bookId);
+        // 使用全局 ObjectMapper 创建生成器，保证和其他接口的 JSON 序列化配置一致
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("code", ErrorCodeEnum.OK.getCode());
+            generator.writeStringField("message", ErrorCodeEnum.OK.getMessage());
+            generator.writeArrayFieldStart("data");
+            for (int i = 0; i < catalog.size(); i++) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", catalog.getChapterId(i));
+                generator.writeStringField("chapterName", catalog.getChapterName(i));
+                generator.writeNumberField("isVip", catalog.getIsVip(i));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            // 和 RestResp 序列化后的属性保持一致
+            generator.writeBooleanField("ok", true);
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public RestResp<PageRespDto<BookChapterRespDto>> listChapters(Long bookId, PageReqDto dto) {
+        BookChapterCatalogDto catalog = bookChapterCatalogCacheManager.getChapterCatalog(bookId);
+        int from = (int) Math.min((long) (dto.getPageNum() - 1) * dto.getPageSize(),
+            Integer.MAX_VALUE);
+        return RestResp.ok(PageRespDto.of(dto.getPageNum(), dto.getPageSize(), catalog.size(),
+            catalog.range(from, dto.getPageSize())));
     }
 
     @Override
@@ -335,6 +353,7 @@ public class BookServiceImpl implements BookService {
         return RestResp.ok();
     }
 
+    @Transactional(rollbackFor = Exception.class)
     @Override
     public RestResp<Void> saveBook(BookAddReqDto dto) {
         // 校验小说名是否已存在
@@ -361,6 +380,8 @@ public class BookServiceImpl implements BookService {
         bookInfo.setUpdateTime(LocalDateTime.now());
         // 保存小说信息
         bookInfoMapper.insert(bookInfo);
+        // 事务提交后发送小说信息改变消息
+        bookChangeMsgManager.recordBookChange(bookInfo.getId(), null);
         return RestResp.ok();
     }
 
@@ -414,27 +435,52 @@ public class BookServiceImpl implements BookService {
         // 3) 更新小说表最新章节信息和小说总字数信息
         BookInfo newBookInfo = new BookInfo();
         newBookInfo.setId(dto.getBookId());
+        if (Objects.isNull(bookChapter)) {
+            // 发布的是第一章，同时冗余首章ID
+            newBookInfo.setFirstChapterId(newBookChapter.getId());
+        }
         newBookInfo.setLastChapterId(newBookChapter.getId());
         newBookInfo.setLastChapterName(newBookChapter.getChapterName());
         newBookInfo.setLastChapterUpdateTime(new Date());
         newBookInfo.setWordCount(bookInfo.getWordCount() + newBookChapter.getWordCount());
-        newBookChapter.setUpdateTime(LocalDateTime.now());
+        newBookInfo.setUpdateTime(LocalDateTime.now());
         bookInfoMapper.updateById(newBookInfo);
-        //  b) 清除书籍信息缓存。
-        taskExecutor.execute(() -> {
-            try {
-                Thread.sleep(1000);
-                bookInfoCacheManager.evictBookInfoCache();
-                bookChapterCacheManager.evictBookChapterCache();
-                bookContentCacheManager.evictBookContentCache();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+        //  b) 清除受影响的小说级缓存（缓存双删），已有章节的信息和内容都没有改变，新章节此前不可能被缓存
+        evictBookChapterCaches(dto.getBookId());
+        taskScheduler.schedule(
+            () -> evictBookChapterCaches(dto.getBookId()),
+            Instant.now().plus(CACHE_DELAY_EVICT_TIME));
+        //  c) 事务提交后发送小说信息改变消息，更新 ES 索引和各节点缓存
+        bookChangeMsgManager.recordBookChange(dto.getBookId(), newBookChapter.getId());
+        //  d) 事务提交后更新新书榜和更新榜，再清除榜单缓存（清除由缓存推迟到提交后，
+        //  在更新榜单的回调之后注册，因此在榜单更新后执行，避免清除后又加载到旧榜单）
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    bookRankCacheManager.updateRankBooks(dto.getBookId(),
+                        bookInfo.getCreateTime(), newBookInfo.getUpdateTime());
+                } catch (Exception e) {
+                    // 章节已发布成功，榜单更新失败不影响发布结果
+                    log.error("小说榜单更新失败，bookId:{}", dto.getBookId(), e);
+                }
             }
         });
+        bookRankCacheManager.evictRankCache();
 
         return RestResp.ok();
     }
 
+    /**
+     * 按 key 清除章节发布后受影响的缓存，上一章/下一章由章节索引缓存计算，清除章节索引缓存即可
+     */
+    private void evictBookChapterCaches(Long bookId) {
+        bookInfoCacheManager.evictBookInfoCache(bookId);
+        bookChapterIndexCacheManager.evictChapterIndexCache(bookId);
+        bookChapterCatalogCacheManager.evictChapterCatalogCache(bookId);
+        bookSearchCacheManager.evictSearchCache(bookId);
+    }
+
     @Override
     public RestResp<PageRespDto<BookInfoRespDto>> listAuthorBooks(PageReqDto dto) {
         IPage<BookInfo> page = new Page<>();
@@ -1,18 +1,22 @@
 package io.github.xxyopen.novel.service.impl;
 
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
 import io.github.xxyopen.novel.core.common.resp.PageRespDto;
 import io.github.xxyopen.novel.core.common.resp.RestResp;
 import io.github.xxyopen.novel.dao.entity.BookInfo;
 import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
 import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
 import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
+import io.github.xxyopen.novel.manager.cache.BookSearchCacheManager;
+import io.github.xxyopen.novel.manager.search.BookNgramIndexManager;
 import io.github.xxyopen.novel.service.SearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,32 +25,72 @@ import java.util.List;
  * @author xiongxiaoyang
  * @date 2022/5/23
  */
-@ConditionalOnProperty(prefix = "spring.elasticsearch", name = "enabled", havingValue = "false")
+@ConditionalOnExpression("'${spring.elasticsearch.enabled}' == 'false' and !${novel.search.lucene.enabled:false}")
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DbSearchServiceImpl implements SearchService {
 
+    /**
+     * 最多统计的搜索结果数量，超过时总数按该值返回（与 Elasticsearch 默认的 track_total_hits 一致）
+     */
+    private static final int MAX_COUNT = 10000;
+
     private final BookInfoMapper bookInfoMapper;
 
+    private final BookNgramIndexManager bookNgramIndexManager;
+
+    private final BookSearchCacheManager bookSearchCacheManager;
+
     @Override
     public RestResp<PageRespDto<BookInfoRespDto>> searchBooks(BookSearchReqDto condition) {
-        Page<BookInfoRespDto> page = new Page<>();
-        page.setCurrent(condition.getPageNum());
-        page.setSize(condition.getPageSize());
-        List<BookInfo> bookInfos = bookInfoMapper.searchBooks(page, condition);
-        return RestResp.ok(
-            PageRespDto.of(condition.getPageNum(), condition.getPageSize(), page.getTotal(),
-                bookInfos.stream().map(v -> BookInfoRespDto.builder()
-                    .id(v.getId())
-                    .bookName(v.getBookName())
-                    .categoryId(v.getCategoryId())
-                    .categoryName(v.getCategoryName())
-                    .authorId(v.getAuthorId())
-                    .authorName(v.getAuthorName())
-                    .wordCount(v.getWordCount())
-                    .lastChapterName(v.getLastChapterName())
-                    .build()).toList()));
+        int pageNum = Math.max(condition.getPageNum(), 1);
+        int pageSize = Math.max(condition.getPageSize(), 0);
+        long offset = (long) (pageNum - 1) * pageSize;
+        List<Long> bookIds = null;
+        if (!StringUtils.isBlank(condition.getKeyword())) {
+            // 先通过倒排索引解析出包含关键词的小说，再按主键查询
+            long[] matchedBookIds = bookNgramIndexManager.search(condition.getKeyword());
+            if (matchedBookIds != null && matchedBookIds.length == 0) {
+                return RestResp.ok(condition.isSearchCount()
+                    ? PageRespDto.of(pageNum, pageSize, 0, Collections.emptyList())
+                    : PageRespDto.ofHasNext(pageNum, pageSize, Collections.emptyList(), false));
+            }
+            if (matchedBookIds != null) {
+                bookIds = Arrays.stream(matchedBookIds).boxed().toList();
+            }
+        }
+        List<Long> finalBookIds = bookIds;
+        if (!condition.isSearchCount()) {
+            // 不统计总数，多查一条判断是否有下一页
+            List<BookInfo> bookInfos = bookInfoMapper.searchBooks(condition, bookIds, offset,
+                pageSize + 1);
+            boolean hasNext = bookInfos.size() > pageSize;
+            return RestResp.ok(PageRespDto.ofHasNext(pageNum, pageSize,
+                toBookInfoList(hasNext ? bookInfos.subList(0, pageSize) : bookInfos), hasNext));
+        }
+        // 总数与页码无关，翻页时命中缓存；匹配的小说过多时只统计到 MAX_COUNT 条
+        long total = bookSearchCacheManager.getSearchCount(condition,
+            () -> bookInfoMapper.countBooks(condition, finalBookIds, MAX_COUNT));
+        if (total < MAX_COUNT && total <= offset) {
+            return RestResp.ok(PageRespDto.of(pageNum, pageSize, total, Collections.emptyList()));
+        }
+        List<BookInfo> bookInfos = bookInfoMapper.searchBooks(condition, bookIds, offset,
+            pageSize);
+        return RestResp.ok(PageRespDto.of(pageNum, pageSize, total, toBookInfoList(bookInfos)));
+    }
+
+    private List<BookInfoRespDto> toBookInfoList(List<BookInfo> bookInfos) {
+        return bookInfos.stream().map(v -> BookInfoRespDto.builder()
+            .id(v.getId())
+            .bookName(v.getBookName())
+            .categoryId(v.getCategoryId())
+            .categoryName(v.getCategoryName())
+            .authorId(v.getAuthorId())
+            .authorName(v.getAuthorName())
+            .wordCount(v.getWordCount())
+            .lastChapterName(v.getLastChapterName())
+            .build()).toList();
     }
 
 }
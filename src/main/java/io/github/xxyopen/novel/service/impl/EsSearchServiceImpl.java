@@ -2,7 +2,11 @@ package io.github.xxyopen.novel.service.impl;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
@@ -10,12 +14,11 @@ import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.core.search.TotalHits;
 import co.elastic.clients.json.JsonData;
-import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONObject;
-import com.alibaba.fastjson.TypeReference;
 import com.baomidou.mybatisplus.core.toolkit.CollectionUtils;
 import com.baomidou.mybatisplus.core.toolkit.StringUtils;
-import io.github.xxyopen.novel.core.annotation.Lock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.xxyopen.novel.core.common.constant.ErrorCodeEnum;
+import io.github.xxyopen.novel.core.common.exception.BusinessException;
 import io.github.xxyopen.novel.core.common.resp.PageRespDto;
 import io.github.xxyopen.novel.core.common.resp.RestResp;
 import io.github.xxyopen.novel.core.constant.CacheConsts;
@@ -23,21 +26,32 @@ import io.github.xxyopen.novel.core.constant.EsConsts;
 import io.github.xxyopen.novel.dto.es.EsBookDto;
 import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
 import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
+import io.github.xxyopen.novel.dto.resp.BookSearchFacetRespDto;
+import io.github.xxyopen.novel.dto.resp.BookSearchRespDto;
+import io.github.xxyopen.novel.manager.cache.BookSearchCacheManager;
 import io.github.xxyopen.novel.service.SearchService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.curator.shaded.com.google.common.hash.BloomFilter;
 import org.apache.curator.shaded.com.google.common.hash.Funnels;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 
 import static io.vertx.mysqlclient.impl.datatype.DataType.JSON;
 
@@ -53,42 +67,103 @@ import static io.vertx.mysqlclient.impl.datatype.DataType.JSON;
 @Slf4j
 public class EsSearchServiceImpl implements SearchService {
 
+    /**
+     * 游标分页时间点的保持时间，每次翻页都会续期
+     */
+    private static final String PIT_KEEP_ALIVE = "1m";
+
+    /**
+     * 所有节点每秒最多打开的时间点数，时间点在保持时间内未被使用才会过期，限制打开速率即限制了同时存在的时间点数
+     */
+    private static final long PIT_OPEN_RATE = 50;
+
+    private static final String PIT_RATE_LIMITER_KEY = "RateLimiter::esOpenPit";
+
+    /**
+     * 按取值分组统计的分面字段
+     */
+    private static final List<String> TERMS_FACET_FIELDS = List.of(
+        EsConsts.BookIndex.FIELD_CATEGORY_ID, EsConsts.BookIndex.FIELD_BOOK_STATUS,
+        EsConsts.BookIndex.FIELD_IS_VIP);
+
+    /**
+     * 分面统计的字数区间
+     */
+    private static final List<WordCountRange> WORD_COUNT_RANGES = List.of(
+        new WordCountRange("0-300000", null, 300000),
+        new WordCountRange("300000-500000", 300000, 500000),
+        new WordCountRange("500000-1000000", 500000, 1000000),
+        new WordCountRange("1000000-2000000", 1000000, 2000000),
+        new WordCountRange("2000000-", 2000000, null));
+
+    /**
+     * 分面统计中分组子聚合的名称
+     */
+    private static final String FACET_BUCKETS_AGG = "buckets";
+
+    /**
+     * 分类等分面字段的最大分组数
+     */
+    private static final int FACET_TERMS_SIZE = 100;
+
     private final ElasticsearchClient esClient;
 
+    private final BookSearchCacheManager bookSearchCacheManager;
 
-    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
 
+    private final RedissonClient redissonClient;
+
+    private RRateLimiter pitRateLimiter;
+
+    /**
+     * 初始化打开时间点的限流器，已存在时不修改速率
+     */
+    @PostConstruct
+    public void initPitRateLimiter() {
+        pitRateLimiter = redissonClient.getRateLimiter(PIT_RATE_LIMITER_KEY);
+        pitRateLimiter.trySetRate(RateType.OVERALL, PIT_OPEN_RATE, 1, RateIntervalUnit.SECONDS);
+    }
 
-    @SneakyThrows
     @Override
-    @Lock(prefix = "EsSearch")
     public RestResp<PageRespDto<BookInfoRespDto>> searchBooks(BookSearchReqDto condition) {
-
-        String cacheResult = stringRedisTemplate.opsForValue().get(condition.toString());
-        if (cacheResult != null) {
-            return JSONObject.parseObject(cacheResult, new TypeReference<>() {
-            });
+        if (condition.getCursor() != null) {
+            // 游标分页的结果和时间点绑定，不做缓存
+            return RestResp.ok(searchByCursor(condition));
+        }
+        if (condition.isFacet() && condition.getPageSize() == 0
+            && StringUtils.isBlank(condition.getKeyword())) {
+            // 只按过滤条件统计分面时 size 为 0，结果与排序和页码无关，可以复用的请求较多，单独缓存
+            return RestResp.ok(
+                bookSearchCacheManager.getSearchFacets(condition, () -> searchFromEs(condition)));
         }
+        return RestResp.ok(
+            bookSearchCacheManager.getSearchResult(condition, () -> searchFromEs(condition)));
+    }
+
+    /**
+     * 从 Elasticsearch 中搜索小说
+     */
+    @SneakyThrows
+    private PageRespDto<BookInfoRespDto> searchFromEs(BookSearchReqDto condition) {
         SearchResponse<EsBookDto> response = esClient.search(s -> {
 
                 SearchRequest.Builder searchBuilder = s.index(EsConsts.BookIndex.INDEX_NAME);
                 // 构建检索条件
-                buildSearchCondition(condition, searchBuilder);
-                // 排序
-                if (!StringUtils.isBlank(condition.getSort())) {
-                    searchBuilder.sort(o -> o.field(f -> f
-                        .field(StringUtils.underlineToCamel(condition.getSort().split(" ")[0]))
-                        .order(SortOrder.Desc))
-                    );
+                buildSearchCondition(condition, searchBuilder, condition.isFacet());
+                // 分面统计
+                if (condition.isFacet()) {
+                    buildFacetAggregations(condition, searchBuilder);
                 }
+                // 排序
+                buildSort(condition, searchBuilder);
                 // 分页
                 searchBuilder.from((condition.getPageNum() - 1) * condition.getPageSize())
                     .size(condition.getPageSize());
                 // 设置高亮显示
-                searchBuilder.highlight(h -> h.fields(EsConsts.BookIndex.FIELD_BOOK_NAME,
-                        t -> t.preTags("<em style='color:red'>").postTags("</em>"))
-                    .fields(EsConsts.BookIndex.FIELD_AUTHOR_NAME,
-                        t -> t.preTags("<em style='color:red'>").postTags("</em>")));
+                if (condition.getPageSize() > 0) {
+                    buildHighlight(searchBuilder);
+                }
 
                 return searchBuilder;
             },
@@ -96,12 +171,169 @@ public class EsSearchServiceImpl implements SearchService {
         );
 
         TotalHits total = response.hits().total();
-        if(total.value() == 0) {
-            stringRedisTemplate.opsForValue().set(condition.toString(), JSONObject.toJSONString(PageRespDto.empty()));
-            return RestResp.ok(PageRespDto.empty());
+        if (condition.isFacet()) {
+            // 没有命中时其它分组仍可能有结果，需要返回分面统计
+            return new BookSearchRespDto(condition.getPageNum(), condition.getPageSize(),
+                total == null ? 0 : total.value(), toBookInfoList(response.hits().hits()),
+                toFacets(response.aggregations()));
         }
-        List<BookInfoRespDto> list = new ArrayList<>();
+        if (total.value() == 0) {
+            return PageRespDto.empty();
+        }
+        return PageRespDto.of(condition.getPageNum(), condition.getPageSize(), total.value(),
+            toBookInfoList(response.hits().hits()));
+    }
+
+    /**
+     * 使用 search_after + 时间点（PIT）进行游标分页，每页的开销与页码无关，也不受 max_result_window 限制
+     */
+    @SneakyThrows
+    private PageRespDto<BookInfoRespDto> searchByCursor(BookSearchReqDto condition) {
+        if (condition.getPageSize() < 1) {
+            // 每页没有数据时无法确定下一页的位置，游标分页不支持
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+        boolean firstPage = StringUtils.isBlank(condition.getCursor());
+        SearchCursor cursor = firstPage ? openCursor() : decodeCursor(condition.getCursor());
+        SearchResponse<EsBookDto> response;
+        try {
+            response = searchWithCursor(condition, cursor);
+        } catch (Exception e) {
+            if (firstPage) {
+                // 刚打开的时间点不会再被使用
+                closePit(cursor.pitId());
+            }
+            throw e;
+        }
+
         List<Hit<EsBookDto>> hits = response.hits().hits();
+        // 每次搜索返回的时间点ID可能变化，下一页应使用最新的
+        String pitId = response.pitId() != null ? response.pitId() : cursor.pitId();
+        String nextCursor = null;
+        if (hits.size() > condition.getPageSize()) {
+            hits = hits.subList(0, condition.getPageSize());
+            nextCursor = encodeCursor(
+                new SearchCursor(pitId, hits.get(hits.size() - 1).sort()));
+        } else {
+            // 多查询的一条不存在，已经是最后一页，立即关闭时间点释放资源
+            closePit(pitId);
+        }
+        TotalHits total = response.hits().total();
+        return PageRespDto.ofCursor(condition.getPageNum(), condition.getPageSize(),
+            total == null ? 0 : total.value(), toBookInfoList(hits), nextCursor);
+    }
+
+    /**
+     * 在时间点上从游标位置开始查询，多查询一条用于判断是否还有下一页
+     */
+    private SearchResponse<EsBookDto> searchWithCursor(BookSearchReqDto condition,
+        SearchCursor cursor) throws IOException {
+        return esClient.search(s -> {
+
+                // 使用时间点搜索时不能再指定索引
+                SearchRequest.Builder searchBuilder = s.pit(p -> p.id(cursor.pitId())
+                    .keepAlive(k -> k.time(PIT_KEEP_ALIVE)));
+                buildSearchCondition(condition, searchBuilder, false);
+                // 排序，相关度排序时也需要显式指定，最后按文档在分片中的位置保证顺序唯一
+                if (StringUtils.isBlank(condition.getSort())) {
+                    searchBuilder.sort(o -> o.score(t -> t.order(SortOrder.Desc)));
+                } else {
+                    buildSort(condition, searchBuilder);
+                }
+                searchBuilder.sort(o -> o.field(f -> f
+                    .field(EsConsts.BookIndex.FIELD_SHARD_DOC)
+                    .order(SortOrder.Asc)));
+                // 从上一页最后一条记录之后开始查询
+                if (!CollectionUtils.isEmpty(cursor.searchAfter())) {
+                    searchBuilder.searchAfter(cursor.searchAfter());
+                }
+                searchBuilder.size(condition.getPageSize() + 1);
+                buildHighlight(searchBuilder);
+
+                return searchBuilder;
+            },
+            EsBookDto.class
+        );
+    }
+
+    /**
+     * 打开时间点，作为游标分页第一页的游标；超出打开速率时拒绝请求，避免未关闭的时间点堆积
+     */
+    @SneakyThrows
+    private SearchCursor openCursor() {
+        if (!tryAcquirePit()) {
+            throw new BusinessException(ErrorCodeEnum.USER_REQ_MANY);
+        }
+        String pitId = esClient.openPointInTime(o -> o
+            .index(EsConsts.BookIndex.INDEX_NAME)
+            .keepAlive(k -> k.time(PIT_KEEP_ALIVE))).id();
+        return new SearchCursor(pitId, Collections.emptyList());
+    }
+
+    private boolean tryAcquirePit() {
+        try {
+            return pitRateLimiter.tryAcquire();
+        } catch (Exception e) {
+            // 限流器不可用时不影响请求，时间点仍会在保持时间后自动过期
+            log.warn("获取打开时间点的许可失败", e);
+            return true;
+        }
+    }
+
+    private void closePit(String pitId) {
+        try {
+            esClient.closePointInTime(c -> c.id(pitId));
+        } catch (Exception e) {
+            // 关闭失败时等待时间点自动过期
+            log.warn("关闭 Elasticsearch 时间点失败，pitId:{}", pitId, e);
+        }
+    }
+
+    /**
+     * 游标对外不透明：JSON 序列化后进行 URL 安全的 Base64 编码
+     */
+    @SneakyThrows
+    private String encodeCursor(SearchCursor cursor) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(objectMapper.writeValueAsBytes(cursor));
+    }
+
+    private SearchCursor decodeCursor(String cursor) {
+        try {
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(cursor),
+                SearchCursor.class);
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+    }
+
+    /**
+     * 构建排序条件
+     */
+    private void buildSort(BookSearchReqDto condition, SearchRequest.Builder searchBuilder) {
+        if (!StringUtils.isBlank(condition.getSort())) {
+            searchBuilder.sort(o -> o.field(f -> f
+                .field(StringUtils.underlineToCamel(condition.getSort().split(" ")[0]))
+                .order(SortOrder.Desc))
+            );
+        }
+    }
+
+    /**
+     * 设置高亮显示
+     */
+    private void buildHighlight(SearchRequest.Builder searchBuilder) {
+        searchBuilder.highlight(h -> h.fields(EsConsts.BookIndex.FIELD_BOOK_NAME,
+                t -> t.preTags("<em style='color:red'>").postTags("</em>"))
+            .fields(EsConsts.BookIndex.FIELD_AUTHOR_NAME,
+                t -> t.preTags("<em style='color:red'>").postTags("</em>")));
+    }
+
+    /**
+     * 将命中结果转换为小说信息
+     */
+    private List<BookInfoRespDto> toBookInfoList(List<Hit<EsBookDto>> hits) {
+        List<BookInfoRespDto> list = new ArrayList<>();
         // 类型推断 var 非常适合 for 循环，JDK 10 引入，JDK 11 改进
         for (var hit : hits) {
             EsBookDto book = hit.source();
@@ -125,19 +357,18 @@ public class EsSearchServiceImpl implements SearchService {
                 .lastChapterName(book.getLastChapterName())
                 .build());
         }
-        assert total != null;
-        RestResp<PageRespDto<BookInfoRespDto>> result = RestResp.ok(
-            PageRespDto.of(condition.getPageNum(), condition.getPageSize(), total.value(), list));
-        stringRedisTemplate.opsForValue().set(condition.toString(), JSONObject.toJSONString(result), 5, TimeUnit.MINUTES);
-        return result;
-
+        return list;
     }
 
     /**
      * 构建检索条件
+     *
+     * @param facetPostFilter 是否将分面字段的过滤条件放到 post_filter 中，只过滤命中结果，不影响分面统计
      */
     private void buildSearchCondition(BookSearchReqDto condition,
-        SearchRequest.Builder searchBuilder) {
+        SearchRequest.Builder searchBuilder, boolean facetPostFilter) {
+
+        Map<String, Query> facetFilters = buildFacetFilters(condition);
 
         BoolQuery boolQuery = BoolQuery.of(b -> {
 
@@ -166,28 +397,7 @@ public class EsSearchServiceImpl implements SearchService {
                 )._toQuery());
             }
 
-            if (Objects.nonNull(condition.getCategoryId())) {
-                b.must(TermQuery.of(m -> m
-                    .field(EsConsts.BookIndex.FIELD_CATEGORY_ID)
-                    .value(condition.getCategoryId())
-                )._toQuery());
-            }
-
             // 范围查询
-            if (Objects.nonNull(condition.getWordCountMin())) {
-                b.must(RangeQuery.of(m -> m
-                    .field(EsConsts.BookIndex.FIELD_WORD_COUNT)
-                    .gte(JsonData.of(condition.getWordCountMin()))
-                )._toQuery());
-            }
-
-            if (Objects.nonNull(condition.getWordCountMax())) {
-                b.must(RangeQuery.of(m -> m
-                    .field(EsConsts.BookIndex.FIELD_WORD_COUNT)
-                    .lt(JsonData.of(condition.getWordCountMax()))
-                )._toQuery());
-            }
-
             if (Objects.nonNull(condition.getUpdateTimeMin())) {
                 b.must(RangeQuery.of(m -> m
                     .field(EsConsts.BookIndex.FIELD_LAST_CHAPTER_UPDATE_TIME)
@@ -195,11 +405,163 @@ public class EsSearchServiceImpl implements SearchService {
                 )._toQuery());
             }
 
+            if (!facetPostFilter && !facetFilters.isEmpty()) {
+                b.filter(new ArrayList<>(facetFilters.values()));
+            }
+
             return b;
 
         });
 
         searchBuilder.query(q -> q.bool(boolQuery));
 
+        if (facetPostFilter && !facetFilters.isEmpty()) {
+            searchBuilder.postFilter(q -> q.bool(b -> b
+                .filter(new ArrayList<>(facetFilters.values()))));
+        }
+
+    }
+
+    /**
+     * 构建分面字段（分类、更新状态、是否收费、字数）的过滤条件
+     *
+     * @return 分面字段 -> 过滤条件
+     */
+    private Map<String, Query> buildFacetFilters(BookSearchReqDto condition) {
+        Map<String, Query> facetFilters = new LinkedHashMap<>();
+        if (Objects.nonNull(condition.getCategoryId())) {
+            facetFilters.put(EsConsts.BookIndex.FIELD_CATEGORY_ID, TermQuery.of(m -> m
+                .field(EsConsts.BookIndex.FIELD_CATEGORY_ID)
+                .value(condition.getCategoryId())
+            )._toQuery());
+        }
+        if (Objects.nonNull(condition.getBookStatus())) {
+            facetFilters.put(EsConsts.BookIndex.FIELD_BOOK_STATUS, TermQuery.of(m -> m
+                .field(EsConsts.BookIndex.FIELD_BOOK_STATUS)
+                .value(condition.getBookStatus())
+            )._toQuery());
+        }
+        if (Objects.nonNull(condition.getIsVip())) {
+            facetFilters.put(EsConsts.BookIndex.FIELD_IS_VIP, TermQuery.of(m -> m
+                .field(EsConsts.BookIndex.FIELD_IS_VIP)
+                .value(condition.getIsVip())
+            )._toQuery());
+        }
+        if (Objects.nonNull(condition.getWordCountMin())
+            || Objects.nonNull(condition.getWordCountMax())) {
+            facetFilters.put(EsConsts.BookIndex.FIELD_WORD_COUNT,
+                buildWordCountQuery(condition.getWordCountMin(), condition.getWordCountMax()));
+        }
+        return facetFilters;
+    }
+
+    /**
+     * 字数范围查询，包含下限不包含上限
+     */
+    private Query buildWordCountQuery(Integer min, Integer max) {
+        return RangeQuery.of(m -> {
+            m.field(EsConsts.BookIndex.FIELD_WORD_COUNT);
+            if (Objects.nonNull(min)) {
+                m.gte(JsonData.of(min));
+            }
+            if (Objects.nonNull(max)) {
+                m.lt(JsonData.of(max));
+            }
+            return m;
+        })._toQuery();
+    }
+
+    /**
+     * 构建分面统计聚合，每个分面字段的统计只使用其它分面字段的过滤条件，
+     * 这样选中某个分类后仍能返回其它分类的小说数量
+     */
+    private void buildFacetAggregations(BookSearchReqDto condition,
+        SearchRequest.Builder searchBuilder) {
+        Map<String, Query> facetFilters = buildFacetFilters(condition);
+        for (String field : TERMS_FACET_FIELDS) {
+            List<Query> otherFilters = otherFacetFilters(facetFilters, field);
+            searchBuilder.aggregations(field, a -> a
+                .filter(q -> q.bool(b -> b.filter(otherFilters)))
+                .aggregations(FACET_BUCKETS_AGG, t -> t
+                    .terms(v -> v.field(field).size(FACET_TERMS_SIZE))));
+        }
+        // 字数区间使用多个 filter 子聚合统计
+        Map<String, Aggregation> rangeAggs = new LinkedHashMap<>();
+        for (WordCountRange range : WORD_COUNT_RANGES) {
+            rangeAggs.put(range.key(), Aggregation.of(a -> a
+                .filter(buildWordCountQuery(range.from(), range.to()))));
+        }
+        List<Query> otherFilters = otherFacetFilters(facetFilters,
+            EsConsts.BookIndex.FIELD_WORD_COUNT);
+        searchBuilder.aggregations(EsConsts.BookIndex.FIELD_WORD_COUNT, a -> a
+            .filter(q -> q.bool(b -> b.filter(otherFilters)))
+            .aggregations(rangeAggs));
+    }
+
+    private List<Query> otherFacetFilters(Map<String, Query> facetFilters, String field) {
+        List<Query> otherFilters = new ArrayList<>(facetFilters.size());
+        facetFilters.forEach((k, v) -> {
+            if (!k.equals(field)) {
+                otherFilters.add(v);
+            }
+        });
+        return otherFilters;
+    }
+
+    /**
+     * 将分面统计聚合结果转换为各分组的小说数量
+     */
+    private Map<String, List<BookSearchFacetRespDto>> toFacets(
+        Map<String, Aggregate> aggregations) {
+        Map<String, List<BookSearchFacetRespDto>> facets = new LinkedHashMap<>();
+        for (String field : TERMS_FACET_FIELDS) {
+            Aggregate buckets = aggregations.get(field).filter().aggregations()
+                .get(FACET_BUCKETS_AGG);
+            List<BookSearchFacetRespDto> list = new ArrayList<>();
+            // 字段在索引中不存在时返回的不是数值类型的分组结果
+            if (buckets.isLterms()) {
+                for (LongTermsBucket bucket : buckets.lterms().buckets().array()) {
+                    list.add(BookSearchFacetRespDto.builder()
+                        .key(String.valueOf(bucket.key()))
+                        .count(bucket.docCount())
+                        .build());
+                }
+            }
+            facets.put(field, list);
+        }
+        Map<String, Aggregate> rangeAggs = aggregations.get(EsConsts.BookIndex.FIELD_WORD_COUNT)
+            .filter().aggregations();
+        List<BookSearchFacetRespDto> wordCountFacets = new ArrayList<>(WORD_COUNT_RANGES.size());
+        for (WordCountRange range : WORD_COUNT_RANGES) {
+            wordCountFacets.add(BookSearchFacetRespDto.builder()
+                .key(range.key())
+                .from(range.from())
+                .to(range.to())
+                .count(rangeAggs.get(range.key()).filter().docCount())
+                .build());
+        }
+        facets.put(EsConsts.BookIndex.FIELD_WORD_COUNT, wordCountFacets);
+        return facets;
+    }
+
+    /**
+     * 游标分页的游标
+     *
+     * @param pitId       时间点ID
+     * @param searchAfter 上一页最后一条记录的排序值
+     */
+    private record SearchCursor(String pitId, List<String> searchAfter) {
+
+    }
+
+    /**
+     * 分面统计的字数区间
+     *
+     * @param key  区间名
+     * @param from 下限（包含），为 null 表示不限
+     * @param to   上限（不包含），为 null 表示不限
+     */
+    private record WordCountRange(String key, Integer from, Integer to) {
+
     }
 }
@@ -0,0 +1,229 @@
+package io.github.xxyopen.novel.service.impl;
+
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import io.github.xxyopen.novel.core.common.resp.PageRespDto;
+import io.github.xxyopen.novel.core.common.resp.RestResp;
+import io.github.xxyopen.novel.core.constant.EsConsts;
+import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
+import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
+import io.github.xxyopen.novel.manager.search.BookLuceneIndexManager;
+import io.github.xxyopen.novel.service.SearchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.NullFragmenter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lucene 本地索引搜索 服务实现类
+ * <p>
+ * 检索条件、权重、排序和高亮与 Elasticsearch 搜索保持一致，适合不想单独部署 Elasticsearch 的中小规模部署
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/13
+ */
+@ConditionalOnExpression("'${spring.elasticsearch.enabled}' == 'false' and ${novel.search.lucene.enabled:false}")
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LuceneSearchServiceImpl implements SearchService {
+
+    /**
+     * 关键词匹配的字段及权重，与 Elasticsearch 的 multi_match 一致
+     */
+    private static final Map<String, Float> KEYWORD_FIELD_BOOSTS = Map.of(
+        EsConsts.BookIndex.FIELD_BOOK_NAME, 2f,
+        EsConsts.BookIndex.FIELD_AUTHOR_NAME, 1.8f,
+        EsConsts.BookIndex.FIELD_BOOK_DESC, 0.1f);
+
+    /**
+     * 排序列 -> 排序字段
+     */
+    private static final Map<String, SortField.Type> SORT_FIELD_TYPES = Map.of(
+        EsConsts.BookIndex.FIELD_WORD_COUNT, SortField.Type.INT,
+        EsConsts.BookIndex.FIELD_VISIT_COUNT, SortField.Type.LONG,
+        EsConsts.BookIndex.FIELD_LAST_CHAPTER_UPDATE_TIME, SortField.Type.LONG);
+
+    private final BookLuceneIndexManager bookLuceneIndexManager;
+
+    @SneakyThrows
+    @Override
+    public RestResp<PageRespDto<BookInfoRespDto>> searchBooks(BookSearchReqDto condition) {
+        Query keywordQuery = buildKeywordQuery(condition.getKeyword());
+        Query query = buildQuery(condition, keywordQuery);
+        int pageNum = Math.max(condition.getPageNum(), 1);
+        int pageSize = condition.getPageSize();
+        IndexSearcher searcher = bookLuceneIndexManager.acquireSearcher();
+        try {
+            int total = searcher.count(query);
+            int from = (pageNum - 1) * pageSize;
+            if (total <= from || pageSize <= 0) {
+                return RestResp.ok(PageRespDto.of(pageNum, pageSize, total, List.of()));
+            }
+            int topN = Math.min(from + pageSize, total);
+            Sort sort = buildSort(condition.getSort());
+            TopDocs topDocs = sort == null ? searcher.search(query, topN)
+                : searcher.search(query, topN, sort);
+            Highlighter highlighter = keywordQuery == null ? null : buildHighlighter(keywordQuery);
+            StoredFields storedFields = searcher.storedFields();
+            List<BookInfoRespDto> list = new ArrayList<>(pageSize);
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = from; i < scoreDocs.length; i++) {
+                list.add(toBookInfo(storedFields.document(scoreDocs[i].doc), highlighter));
+            }
+            return RestResp.ok(PageRespDto.of(pageNum, pageSize, total, list));
+        } finally {
+            bookLuceneIndexManager.releaseSearcher(searcher);
+        }
+    }
+
+    /**
+     * 构建关键词查询：各字段分词后取最佳匹配（与 Elasticsearch 的 best_fields 一致）
+     */
+    private Query buildKeywordQuery(String keyword) {
+        if (StringUtils.isBlank(keyword)) {
+            return null;
+        }
+        QueryBuilder queryBuilder = new QueryBuilder(bookLuceneIndexManager.getAnalyzer());
+        List<Query> fieldQueries = new ArrayList<>(KEYWORD_FIELD_BOOSTS.size());
+        KEYWORD_FIELD_BOOSTS.forEach((field, boost) -> {
+            Query fieldQuery = queryBuilder.createBooleanQuery(field, keyword);
+            if (fieldQuery != null) {
+                fieldQueries.add(new BoostQuery(fieldQuery, boost));
+            }
+        });
+        return fieldQueries.isEmpty() ? null : new DisjunctionMaxQuery(fieldQueries, 0f);
+    }
+
+    /**
+     * 构建检索条件，过滤条件不参与评分
+     */
+    private Query buildQuery(BookSearchReqDto condition, Query keywordQuery) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        // 只查有字数的小说
+        builder.add(IntPoint.newRangeQuery(EsConsts.BookIndex.FIELD_WORD_COUNT, 1,
+            Integer.MAX_VALUE), BooleanClause.Occur.FILTER);
+        if (keywordQuery != null) {
+            builder.add(keywordQuery, BooleanClause.Occur.MUST);
+        }
+        // 精确查询
+        if (Objects.nonNull(condition.getWorkDirection())) {
+            builder.add(IntPoint.newExactQuery(EsConsts.BookIndex.FIELD_WORK_DIRECTION,
+                condition.getWorkDirection()), BooleanClause.Occur.FILTER);
+        }
+        if (Objects.nonNull(condition.getCategoryId())) {
+            builder.add(LongPoint.newExactQuery(EsConsts.BookIndex.FIELD_CATEGORY_ID,
+                condition.getCategoryId()), BooleanClause.Occur.FILTER);
+        }
+        if (Objects.nonNull(condition.getIsVip())) {
+            builder.add(IntPoint.newExactQuery(EsConsts.BookIndex.FIELD_IS_VIP,
+                condition.getIsVip()), BooleanClause.Occur.FILTER);
+        }
+        if (Objects.nonNull(condition.getBookStatus())) {
+            builder.add(IntPoint.newExactQuery(EsConsts.BookIndex.FIELD_BOOK_STATUS,
+                condition.getBookStatus()), BooleanClause.Occur.FILTER);
+        }
+        // 范围查询
+        if (Objects.nonNull(condition.getWordCountMin())) {
+            builder.add(IntPoint.newRangeQuery(EsConsts.BookIndex.FIELD_WORD_COUNT,
+                condition.getWordCountMin(), Integer.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        if (Objects.nonNull(condition.getWordCountMax())) {
+            builder.add(IntPoint.newRangeQuery(EsConsts.BookIndex.FIELD_WORD_COUNT,
+                    Integer.MIN_VALUE, condition.getWordCountMax() - 1),
+                BooleanClause.Occur.FILTER);
+        }
+        if (Objects.nonNull(condition.getUpdateTimeMin())) {
+            builder.add(LongPoint.newRangeQuery(EsConsts.BookIndex.FIELD_LAST_CHAPTER_UPDATE_TIME,
+                    condition.getUpdateTimeMin().getTime(), Long.MAX_VALUE),
+                BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 构建排序，排序列（如 last_chapter_update_time desc）转为驼峰字段名后倒序，未指定或不支持时按相关度排序
+     */
+    private Sort buildSort(String sort) {
+        if (StringUtils.isBlank(sort)) {
+            return null;
+        }
+        String field = StringUtils.underlineToCamel(sort.strip().split(" ")[0]);
+        SortField.Type type = SORT_FIELD_TYPES.get(field);
+        if (type == null) {
+            return null;
+        }
+        return new Sort(new SortField(field, type, true), SortField.FIELD_SCORE);
+    }
+
+    private Highlighter buildHighlighter(Query keywordQuery) {
+        Highlighter highlighter = new Highlighter(
+            new SimpleHTMLFormatter("<em style='color:red'>", "</em>"),
+            new QueryScorer(keywordQuery));
+        // 不截断，返回完整的高亮文本
+        highlighter.setTextFragmenter(new NullFragmenter());
+        return highlighter;
+    }
+
+    private BookInfoRespDto toBookInfo(Document doc, Highlighter highlighter) {
+        Long categoryId = doc.getField(EsConsts.BookIndex.FIELD_CATEGORY_ID) == null ? null
+            : doc.getField(EsConsts.BookIndex.FIELD_CATEGORY_ID).numericValue().longValue();
+        Long authorId = doc.getField(EsConsts.BookIndex.FIELD_AUTHOR_ID) == null ? null
+            : doc.getField(EsConsts.BookIndex.FIELD_AUTHOR_ID).numericValue().longValue();
+        Integer wordCount = doc.getField(EsConsts.BookIndex.FIELD_WORD_COUNT) == null ? null
+            : doc.getField(EsConsts.BookIndex.FIELD_WORD_COUNT).numericValue().intValue();
+        return BookInfoRespDto.builder()
+            .id(Long.valueOf(doc.get(EsConsts.BookIndex.FIELD_ID)))
+            .bookName(highlight(highlighter, EsConsts.BookIndex.FIELD_BOOK_NAME,
+                doc.get(EsConsts.BookIndex.FIELD_BOOK_NAME)))
+            .categoryId(categoryId)
+            .categoryName(doc.get(EsConsts.BookIndex.FIELD_CATEGORY_NAME))
+            .authorId(authorId)
+            .authorName(highlight(highlighter, EsConsts.BookIndex.FIELD_AUTHOR_NAME,
+                doc.get(EsConsts.BookIndex.FIELD_AUTHOR_NAME)))
+            .wordCount(wordCount)
+            .lastChapterName(doc.get(EsConsts.BookIndex.FIELD_LAST_CHAPTER_NAME))
+            .build();
+    }
+
+    /**
+     * 高亮匹配的关键词，没有匹配时返回原文
+     */
+    private String highlight(Highlighter highlighter, String field, String text) {
+        if (highlighter == null || text == null) {
+            return text;
+        }
+        try {
+            String fragment = highlighter.getBestFragment(bookLuceneIndexManager.getAnalyzer(),
+                field, text);
+            return fragment == null ? text : fragment;
+        } catch (Exception e) {
+            log.warn("搜索结果高亮失败，field:{}，text:{}", field, text, e);
+            return text;
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package io.github.xxyopen.novel.service.impl;
+
+import io.github.xxyopen.novel.core.common.resp.RestResp;
+import io.github.xxyopen.novel.manager.search.BookSuggestIndexManager;
+import io.github.xxyopen.novel.service.SuggestService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * 搜索联想 服务实现类
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/15
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestServiceImpl implements SuggestService {
+
+    /**
+     * 联想词数量
+     */
+    private static final int SUGGEST_SIZE = 10;
+
+    private final BookSuggestIndexManager bookSuggestIndexManager;
+
+    @Override
+    public RestResp<List<String>> suggest(String keyword) {
+        return RestResp.ok(bookSuggestIndexManager.suggest(keyword, SUGGEST_SIZE));
+    }
+
+}
@@ -0,0 +1,76 @@
+package io.github.xxyopen.novel.core.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 压缩字符串 Redis 序列化器 测试
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/4
+ */
+class CompressedStringRedisSerializerTest {
+
+    private final CompressedStringRedisSerializer serializer = new CompressedStringRedisSerializer(
+        "test", CompressedStringRedisSerializer.CODEC_DEFLATE, new SimpleMeterRegistry());
+
+    @Test
+    void shortTextIsStoredRaw() {
+        String text = "第一章 陨落的天才";
+        byte[] bytes = serializer.serialize(text);
+
+        assertThat(bytes[2]).isEqualTo(CompressedStringRedisSerializer.CODEC_RAW);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(text);
+    }
+
+    @Test
+    void longTextIsCompressedAndRoundTrips() {
+        String text = "斗之力，三段！望着测验魔石碑上面闪亮得甚至有些刺眼的五个大字。".repeat(200);
+        byte[] bytes = serializer.serialize(text);
+
+        assertThat(bytes[2]).isEqualTo(CompressedStringRedisSerializer.CODEC_DEFLATE);
+        assertThat(bytes.length).isLessThan(text.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(text);
+    }
+
+    @Test
+    void nullAndEmpty() {
+        assertThat(serializer.serialize(null)).isEmpty();
+        assertThat(serializer.deserialize(null)).isNull();
+        assertThat(serializer.deserialize(new byte[0])).isNull();
+    }
+
+    @Test
+    void legacyJdkSerializedValueIsReadable() {
+        String text = "切换前写入的旧缓存";
+        byte[] legacy = RedisSerializer.java().serialize(text);
+
+        assertThat(serializer.deserialize(legacy)).isEqualTo(text);
+    }
+
+    @Test
+    void unsupportedVersionIsRejected() {
+        byte[] bytes = serializer.serialize("内容");
+        bytes[1] = 99;
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void truncatedCompressedValueIsRejected() {
+        byte[] bytes = serializer.serialize("内容".repeat(1000));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+        assertThatThrownBy(() -> serializer.deserialize(truncated))
+            .isInstanceOf(SerializationException.class);
+    }
+
+}
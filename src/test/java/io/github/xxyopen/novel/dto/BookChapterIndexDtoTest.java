@@ -0,0 +1,72 @@
+package io.github.xxyopen.novel.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 小说章节目录索引 DTO 测试
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/7
+ */
+class BookChapterIndexDtoTest {
+
+    /**
+     * 章节号不连续（缺少第 3、4 章），用于验证章节号不存在时的上一章、下一章
+     */
+    private final BookChapterIndexDto index = new BookChapterIndexDto(
+        new long[]{101L, 102L, 105L, 106L}, new int[]{1, 2, 5, 6});
+
+    private final BookChapterIndexDto empty = new BookChapterIndexDto(new long[0], new int[0]);
+
+    @Test
+    void firstAndLastChapter() {
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.getFirstChapterId()).isEqualTo(101L);
+        assertThat(index.getLastChapterId()).isEqualTo(106L);
+        assertThat(index.getChapterIdAt(-1)).isNull();
+        assertThat(index.getChapterIdAt(4)).isNull();
+    }
+
+    @Test
+    void chapterIdByNum() {
+        assertThat(index.getChapterIdByNum(5)).isEqualTo(105L);
+        assertThat(index.getChapterIdByNum(3)).isNull();
+    }
+
+    @Test
+    void neighboursOfExistingChapter() {
+        assertThat(index.getPreChapterId(2)).isEqualTo(101L);
+        assertThat(index.getNextChapterId(2)).isEqualTo(105L);
+        assertThat(index.getPreChapterId(1)).isNull();
+        assertThat(index.getNextChapterId(6)).isNull();
+    }
+
+    @Test
+    void neighboursOfMissingChapter() {
+        assertThat(index.getPreChapterId(3)).isEqualTo(102L);
+        assertThat(index.getNextChapterId(3)).isEqualTo(105L);
+        assertThat(index.getPreChapterId(0)).isNull();
+        assertThat(index.getNextChapterId(0)).isEqualTo(101L);
+        assertThat(index.getPreChapterId(7)).isEqualTo(106L);
+        assertThat(index.getNextChapterId(7)).isNull();
+    }
+
+    @Test
+    void emptyIndex() {
+        assertThat(empty.size()).isZero();
+        assertThat(empty.getFirstChapterId()).isNull();
+        assertThat(empty.getLastChapterId()).isNull();
+        assertThat(empty.getPreChapterId(1)).isNull();
+        assertThat(empty.getNextChapterId(1)).isNull();
+    }
+
+    @Test
+    void lengthMismatchIsRejected() {
+        assertThatThrownBy(() -> new BookChapterIndexDto(new long[]{1L}, new int[0]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
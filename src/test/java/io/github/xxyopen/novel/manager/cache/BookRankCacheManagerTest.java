@@ -0,0 +1,189 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.xxyopen.novel.core.aspect.KeyResolver;
+import io.github.xxyopen.novel.core.aspect.SingleFlightAspect;
+import io.github.xxyopen.novel.core.cache.CacheReloadRegistry;
+import io.github.xxyopen.novel.core.cache.TwoLevelCacheManager;
+import io.github.xxyopen.novel.core.config.CacheConfig;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.dto.resp.BookRankRespDto;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 小说排行榜 缓存管理类 测试
+ * <p>
+ * 按 NovelApplication 的顺序组装缓存切面和单飞切面，本地缓存使用 CacheConfig 创建的 Caffeine 缓存（带后台刷新），
+ * 远程缓存使用内存缓存代替 Redis
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/16
+ */
+class BookRankCacheManagerTest {
+
+    private static final BookInfoMapper bookInfoMapper = mock(BookInfoMapper.class);
+
+    private static final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class,
+        RETURNS_DEEP_STUBS);
+
+    private static final RedissonClient redissonClient = mock(RedissonClient.class);
+
+    private static final RLock rLock = mock(RLock.class);
+
+    private AnnotationConfigApplicationContext context;
+
+    private BookRankCacheManager bookRankCacheManager;
+
+    private CacheManager remoteCacheManager;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        reset(bookInfoMapper, stringRedisTemplate, redissonClient, rLock);
+        when(redissonClient.getLock(anyString())).thenReturn(rLock);
+        when(rLock.tryLock(anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(stringRedisTemplate.opsForZSet()
+            .reverseRange(CacheConsts.BOOK_NEWEST_RANK_KEY, 0, 29))
+            .thenReturn(new LinkedHashSet<>(List.of("2", "1")));
+        when(bookInfoMapper.selectBatchIds(any())).thenReturn(List.of(buildBook(1L), buildBook(2L)));
+        context = new AnnotationConfigApplicationContext(TestConfig.class);
+        bookRankCacheManager = context.getBean(BookRankCacheManager.class);
+        remoteCacheManager = context.getBean("remoteCacheManager", CacheManager.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void loadColdRankThroughCacheAndSingleFlight() {
+        List<BookRankRespDto> books = bookRankCacheManager.listNewestRankBooks();
+
+        assertThat(books).extracting(BookRankRespDto::getId).containsExactly(2L, 1L);
+        assertThat(bookRankCacheManager.listNewestRankBooks()).isEqualTo(books);
+        verify(bookInfoMapper, times(1)).selectBatchIds(any());
+        verify(rLock).unlock();
+        assertThat(remoteCacheManager.getCache(CacheConsts.BOOK_NEWEST_RANK_CACHE_NAME)
+            .get(SimpleKey.EMPTY)).isNotNull();
+    }
+
+    @Test
+    void returnRemoteValueLoadedByOtherNodeWhileWaitingForLock() throws InterruptedException {
+        List<BookRankRespDto> loaded = List.of(new BookRankRespDto());
+        when(rLock.tryLock(anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            // 等待锁期间其他节点已加载并写入远程缓存
+            remoteCacheManager.getCache(CacheConsts.BOOK_NEWEST_RANK_CACHE_NAME)
+                .put(SimpleKey.EMPTY, loaded);
+            return true;
+        });
+
+        assertThat(bookRankCacheManager.listNewestRankBooks()).isEqualTo(loaded);
+        verify(bookInfoMapper, never()).selectBatchIds(any());
+    }
+
+    @Test
+    void initRankFromDatabaseUntilInitKeySet() {
+        // 榜单已由发布章节创建，但还没有从数据库初始化
+        when(stringRedisTemplate.hasKey(CacheConsts.BOOK_NEWEST_RANK_KEY)).thenReturn(true);
+
+        bookRankCacheManager.listNewestRankBooks();
+
+        verify(bookInfoMapper).selectList(any());
+    }
+
+    @Test
+    void skipInitWhenInitKeySet() {
+        when(stringRedisTemplate.hasKey(CacheConsts.BOOK_NEWEST_RANK_INIT_KEY)).thenReturn(true);
+
+        bookRankCacheManager.listNewestRankBooks();
+
+        verify(bookInfoMapper, never()).selectList(any());
+    }
+
+    private static BookInfo buildBook(Long id) {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.setId(id);
+        bookInfo.setBookName("book" + id);
+        return bookInfo;
+    }
+
+    @Configuration
+    @EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    static class TestConfig {
+
+        @Bean
+        CacheReloadRegistry cacheReloadRegistry() {
+            return new CacheReloadRegistry();
+        }
+
+        @Bean
+        @Primary
+        CacheManager caffeineCacheManager(CacheReloadRegistry cacheReloadRegistry) {
+            return new CacheConfig().caffeineCacheManager(cacheReloadRegistry);
+        }
+
+        @Bean
+        CacheManager remoteCacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+
+        @Bean
+        @SuppressWarnings("unchecked")
+        TwoLevelCacheManager localRemoteCacheManager(CacheReloadRegistry cacheReloadRegistry) {
+            return new TwoLevelCacheManager(caffeineCacheManager(cacheReloadRegistry),
+                remoteCacheManager(), mock(RedisTemplate.class));
+        }
+
+        @Bean
+        KeyResolver keyResolver() {
+            return new KeyResolver();
+        }
+
+        @Bean
+        SingleFlightAspect singleFlightAspect(BeanFactory beanFactory) {
+            return new SingleFlightAspect(redissonClient, keyResolver(), beanFactory);
+        }
+
+        @Bean
+        BookRankCacheManager bookRankCacheManager(CacheReloadRegistry cacheReloadRegistry) {
+            return new BookRankCacheManager(bookInfoMapper, stringRedisTemplate,
+                localRemoteCacheManager(cacheReloadRegistry), cacheReloadRegistry);
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+package io.github.xxyopen.novel.manager.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 小说名/作者名 N-gram 倒排索引管理类 测试
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/14
+ */
+class BookNgramIndexManagerTest {
+
+    private final BookInfoMapper bookInfoMapper = mock(BookInfoMapper.class);
+
+    private final BookNgramIndexManager indexManager = new BookNgramIndexManager(bookInfoMapper);
+
+    @Test
+    void intersectSortedLists() {
+        assertThat(BookNgramIndexManager.intersect(new long[]{1, 3, 5, 7},
+            new long[]{2, 3, 4, 7, 9})).containsExactly(3, 7);
+        assertThat(BookNgramIndexManager.intersect(new long[]{1, 2}, new long[0])).isEmpty();
+    }
+
+    @Test
+    void insertKeepsOrderAndIgnoresExisting() {
+        long[] list = {2, 5};
+
+        assertThat(BookNgramIndexManager.insert(list, 1)).containsExactly(1, 2, 5);
+        assertThat(BookNgramIndexManager.insert(list, 3)).containsExactly(2, 3, 5);
+        assertThat(BookNgramIndexManager.insert(list, 9)).containsExactly(2, 5, 9);
+        assertThat(BookNgramIndexManager.insert(list, 5)).isSameAs(list);
+    }
+
+    @Test
+    void removeKeepsOrderAndIgnoresMissing() {
+        long[] list = {2, 5, 9};
+
+        assertThat(BookNgramIndexManager.remove(list, 2)).containsExactly(5, 9);
+        assertThat(BookNgramIndexManager.remove(list, 5)).containsExactly(2, 9);
+        assertThat(BookNgramIndexManager.remove(list, 9)).containsExactly(2, 5);
+        assertThat(BookNgramIndexManager.remove(list, 3)).isSameAs(list);
+    }
+
+    @Test
+    void searchBeforeBuildFallsBack() {
+        assertThat(indexManager.search("斗破")).isNull();
+    }
+
+    @Test
+    void searchMatchesBookNameAndAuthorName() {
+        build(book(1L, "斗破苍穹", "天蚕土豆"), book(2L, "武动乾坤", "天蚕土豆"),
+            book(3L, "Battle Through the Heavens", "tiancan"));
+
+        assertThat(indexManager.search("斗破")).containsExactly(1L);
+        assertThat(indexManager.search("土豆")).containsExactly(1L, 2L);
+        assertThat(indexManager.search("动")).containsExactly(2L);
+        assertThat(indexManager.search("BATTLE")).containsExactly(3L);
+        assertThat(indexManager.search("不存在")).isEmpty();
+        assertThat(indexManager.search("")).isNull();
+    }
+
+    @Test
+    void searchChecksWholeKeyword() {
+        // 两本小说都包含关键词的所有二元（苍穹、穹苍），只有第二本包含整个关键词
+        build(book(1L, "苍穹穹苍", "作者"), book(2L, "苍穹苍天", "作者"));
+
+        assertThat(indexManager.search("苍穹苍")).containsExactly(2L);
+    }
+
+    @Test
+    void syncReplacesChangedTokens() {
+        build(book(1L, "斗破苍穹", "天蚕土豆"), book(2L, "斗罗大陆", "唐家三少"));
+        when(bookInfoMapper.selectList(any()))
+            .thenReturn(List.of(book(1L, "武动乾坤", "天蚕土豆")), List.of());
+
+        indexManager.sync();
+
+        assertThat(indexManager.search("斗破")).isEmpty();
+        assertThat(indexManager.search("斗")).containsExactly(2L);
+        assertThat(indexManager.search("乾坤")).containsExactly(1L);
+        assertThat(indexManager.search("土豆")).containsExactly(1L);
+    }
+
+    private void build(BookInfo... bookInfos) {
+        when(bookInfoMapper.selectList(any())).thenReturn(List.of(bookInfos), List.of());
+        indexManager.build();
+    }
+
+    private static BookInfo book(Long id, String bookName, String authorName) {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.setId(id);
+        bookInfo.setBookName(bookName);
+        bookInfo.setAuthorName(authorName);
+        bookInfo.setUpdateTime(LocalDateTime.now());
+        return bookInfo;
+    }
+
+}
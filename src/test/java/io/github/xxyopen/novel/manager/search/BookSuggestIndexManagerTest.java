@@ -0,0 +1,82 @@
+package io.github.xxyopen.novel.manager.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 搜索联想索引管理类 测试
+ *
+ * @author xiongxiaoyang
+ * @date 2023/7/15
+ */
+class BookSuggestIndexManagerTest {
+
+    private final BookInfoMapper bookInfoMapper = mock(BookInfoMapper.class);
+
+    private final BookSuggestIndexManager indexManager = new BookSuggestIndexManager(
+        bookInfoMapper);
+
+    @BeforeEach
+    void build() {
+        when(bookInfoMapper.selectList(any())).thenReturn(List.of(
+            book(1L, "斗破苍穹", "天蚕土豆", 100L),
+            book(2L, "斗罗大陆", "唐家三少", 200L),
+            book(3L, "斗破苍穹", "同名作者", 50L),
+            book(4L, "Dou破", "Author", 10L)), List.of());
+        indexManager.build();
+    }
+
+    @Test
+    void suggestBeforeBuildReturnsEmpty() {
+        BookSuggestIndexManager emptyManager = new BookSuggestIndexManager(bookInfoMapper);
+
+        assertThat(emptyManager.suggest("斗", 10)).isEmpty();
+    }
+
+    @Test
+    void prefixMatchesOrderedByVisitCount() {
+        assertThat(indexManager.suggest("斗", 10)).containsExactly("斗罗大陆", "斗破苍穹");
+        assertThat(indexManager.suggest("斗", 1)).containsExactly("斗罗大陆");
+        assertThat(indexManager.suggest("天蚕", 10)).containsExactly("天蚕土豆");
+    }
+
+    @Test
+    void pinyinInitialsMatch() {
+        assertThat(indexManager.suggest("dpc", 10)).containsExactly("斗破苍穹");
+        assertThat(indexManager.suggest("DLDL", 10)).containsExactly("斗罗大陆");
+        assertThat(indexManager.suggest("tjss", 10)).containsExactly("唐家三少");
+    }
+
+    @Test
+    void sameTextIsSuggestedOnce() {
+        // 小说名（dou破）和拼音首字母（doup）两个匹配键都以 dou 开头，展示文本只返回一次
+        assertThat(indexManager.suggest("dou", 10)).containsExactly("Dou破");
+        // 同名小说合并为一个联想条目
+        assertThat(indexManager.suggest("斗破", 10)).containsExactly("斗破苍穹");
+    }
+
+    @Test
+    void blankOrTooLongPrefixReturnsEmpty() {
+        assertThat(indexManager.suggest("  ", 10)).isEmpty();
+        assertThat(indexManager.suggest("斗".repeat(21), 10)).isEmpty();
+        assertThat(indexManager.suggest("不存在", 10)).isEmpty();
+    }
+
+    private static BookInfo book(Long id, String bookName, String authorName, Long visitCount) {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.setId(id);
+        bookInfo.setBookName(bookName);
+        bookInfo.setAuthorName(authorName);
+        bookInfo.setVisitCount(visitCount);
+        return bookInfo;
+    }
+
+}